@@ -0,0 +1,74 @@
+package me.texy.databindinghunter;
+
+import com.intellij.psi.*;
+import me.texy.databindinghunter.util.StringUtil;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds static calls on DataBindingUtil and binding classes, such as FooBinding.inflate(inflater), in one walk.
+ * A call matches when its qualifier is named like an imported binding class and does not resolve to another class,
+ * so no text is built for the visited elements.
+ */
+public class BindingCallDetector extends JavaRecursiveElementWalkingVisitor {
+
+    // <DemoBinding,com.example.databinding.DemoBinding>
+    private final Map<String, String> mImportsBySimpleName = new HashMap<>();
+    // call -> qualified name of the binding class, in source order
+    private final Map<PsiMethodCallExpression, String> mBindingCalls = new LinkedHashMap<>();
+
+    private BindingCallDetector(Set<String> dataBindingImports) {
+        for (String dataBindingImport : dataBindingImports) {
+            mImportsBySimpleName.put(StringUtil.getClassNameFromPath(dataBindingImport), dataBindingImport);
+        }
+    }
+
+    /**
+     * Meant to run before the binding imports are deleted, references stop resolving afterwards and binding classes
+     * are then matched by simple name only.
+     */
+    public static Map<PsiMethodCallExpression, String> findBindingCalls(PsiClass psiClass, Set<String> dataBindingImports) {
+        BindingCallDetector detector = new BindingCallDetector(dataBindingImports);
+        for (PsiMethod method : psiClass.getMethods()) {
+            PsiCodeBlock methodBody = method.getBody();
+            if (methodBody != null) {
+                methodBody.accept(detector);
+            }
+        }
+        return detector.mBindingCalls;
+    }
+
+    @Override
+    public void visitMethodCallExpression(PsiMethodCallExpression expression) {
+        String bindingClass = getBindingClass(expression.getMethodExpression().getQualifierExpression());
+        if (bindingClass != null) {
+            mBindingCalls.put(expression, bindingClass);
+        }
+        super.visitMethodCallExpression(expression);
+    }
+
+    // literals and comments can not hold a call
+    @Override
+    public void visitLiteralExpression(PsiLiteralExpression expression) {
+    }
+
+    @Override
+    public void visitComment(PsiComment comment) {
+    }
+
+    private String getBindingClass(PsiExpression qualifier) {
+        if (!(qualifier instanceof PsiReferenceExpression)) return null;
+
+        PsiReferenceExpression reference = (PsiReferenceExpression) qualifier;
+        String bindingClass = mImportsBySimpleName.get(reference.getReferenceName());
+        if (bindingClass == null) return null;
+
+        PsiElement target = reference.resolve();
+        // generated binding classes are often missing from the index, trust the import then
+        if (target == null) return bindingClass;
+        return target instanceof PsiClass && bindingClass.equals(((PsiClass) target).getQualifiedName()) ? bindingClass : null;
+    }
+}
@@ -0,0 +1,67 @@
+package me.texy.databindinghunter;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import me.texy.databindinghunter.util.StringUtil;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether an import is a ViewDataBinding subclass, resolving each distinct import at most once per run.
+ * Shared by all hunters of a run, safe to use from several threads.
+ */
+public class BindingClassResolver {
+
+    private static final String CLASS_PATH_VIEW_DATA_BINDING = "android.databinding.ViewDataBinding";
+    private static final String GENERATED_BINDING_PACKAGE = ".databinding.";
+
+    private final Project mProject;
+    // binding class names from the layout tables, such as com.demo.databinding.DemoBinding,
+    // or DemoBinding for modules without a known app package
+    private final Set<String> mKnownBindingNames = ConcurrentHashMap.newKeySet();
+    // <import,is ViewDataBinding subclass>
+    private final Map<String, Boolean> mResolved = new ConcurrentHashMap<>();
+
+    public BindingClassResolver(Project project) {
+        this.mProject = project;
+    }
+
+    public BindingClassResolver(Project project, BindingLayoutTable bindingLayouts) {
+        this(project);
+        addKnownBindings(bindingLayouts);
+    }
+
+    public void addKnownBindings(BindingLayoutTable bindingLayouts) {
+        mKnownBindingNames.addAll(bindingLayouts.getBindingNames());
+    }
+
+    public boolean isDataBindingClass(String importClass) {
+        Boolean resolved = mResolved.get(importClass);
+        if (resolved == null) {
+            resolved = isKnownBinding(importClass) || resolveDataBindingClass(importClass);
+            mResolved.put(importClass, resolved);
+        }
+        return resolved;
+    }
+
+    private boolean isKnownBinding(String importClass) {
+        if (mKnownBindingNames.contains(importClass)) return true;
+
+        // generated bindings live in <package>.databinding
+        return importClass.contains(GENERATED_BINDING_PACKAGE)
+                && mKnownBindingNames.contains(StringUtil.getClassNameFromPath(importClass));
+    }
+
+    private boolean resolveDataBindingClass(String importClass) {
+        PsiClass psiClass = JavaPsiFacade.getInstance(mProject)
+                .findClass(importClass, GlobalSearchScope.projectScope(mProject));
+        if (psiClass == null) return false;
+
+        PsiClass superClass = psiClass.getSuperClass();
+        return superClass != null && CLASS_PATH_VIEW_DATA_BINDING.equals(superClass.getQualifiedName());
+    }
+}
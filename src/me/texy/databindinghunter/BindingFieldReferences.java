@@ -0,0 +1,147 @@
+package me.texy.databindinghunter;
+
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.PsiSearchHelper;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import me.texy.databindinghunter.report.MigrationReport;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * References to the binding fields of one class, collected for all of them at once. Private fields are found in one
+ * walk of their file. The others are visible in their use scope (the package for package-private ones), the files
+ * of that scope which mention one of their names are walked once each. Only java references are collected, the
+ * only ones the hunters rewrite.
+ */
+public class BindingFieldReferences {
+
+    private final PsiClass mClass;
+    private final Set<String> mBindingClassNames;
+    private final MigrationReport mReport;
+    private Map<PsiField, Collection<PsiReference>> mReferences;
+
+    /**
+     * @param bindingClassNames simple names of the binding classes, such as DemoBinding
+     */
+    public BindingFieldReferences(PsiClass psiClass, Set<String> bindingClassNames, MigrationReport report) {
+        this.mClass = psiClass;
+        this.mBindingClassNames = bindingClassNames;
+        this.mReport = report;
+    }
+
+    /**
+     * Cached references are returned while all of them are still valid, otherwise the field is searched again.
+     */
+    public Collection<PsiReference> find(PsiField field) {
+        if (mReferences == null) {
+            mReferences = searchBindingFields();
+        }
+        Collection<PsiReference> references = mReferences.get(field);
+        if (references == null || !isValid(references)) {
+            references = search(field);
+            mReferences.put(field, references);
+        }
+        return references;
+    }
+
+    private Map<PsiField, Collection<PsiReference>> searchBindingFields() {
+        Map<PsiField, Collection<PsiReference>> references = new HashMap<>();
+        PsiFile ownFile = mClass.getContainingFile();
+        // fields only their own file can refer to, and the others with the scope they are visible in
+        Map<String, PsiField> fileFields = new HashMap<>();
+        Map<String, PsiField> sharedFields = new HashMap<>();
+        List<GlobalSearchScope> sharedScopes = new ArrayList<>();
+        for (PsiField field : mClass.getFields()) {
+            if (!mBindingClassNames.contains(field.getType().getPresentableText())) continue;
+
+            references.put(field, new ArrayList<>());
+            SearchScope scope = getSearchScope(field);
+            // a private field is only visible in its top level class, a field of a preview copy only in the copy
+            if (field.hasModifierProperty(PsiModifier.PRIVATE) || !(scope instanceof GlobalSearchScope)) {
+                fileFields.put(field.getName(), field);
+            } else {
+                sharedFields.put(field.getName(), field);
+                sharedScopes.add((GlobalSearchScope) scope);
+            }
+        }
+        if (references.isEmpty()) return references;
+
+        long start = System.nanoTime();
+        Set<PsiFile> files = new LinkedHashSet<>();
+        files.add(ownFile);
+        if (!sharedFields.isEmpty()) {
+            // the word index tells which files mention a field name, each of them is walked once for all fields
+            GlobalSearchScope scope = GlobalSearchScope.union(sharedScopes.toArray(GlobalSearchScope.EMPTY_ARRAY));
+            PsiSearchHelper searchHelper = PsiSearchHelper.SERVICE.getInstance(mClass.getProject());
+            for (String name : sharedFields.keySet()) {
+                searchHelper.processAllFilesWithWord(name, scope, file -> {
+                    files.add(file);
+                    return true;
+                }, true);
+            }
+        }
+        for (PsiFile file : files) {
+            Map<String, PsiField> fields = new HashMap<>(sharedFields);
+            if (file.equals(ownFile)) {
+                fields.putAll(fileFields);
+            }
+            collectReferences(file, fields, references);
+        }
+        mReport.addStep(MigrationReport.STEP_REFERENCE_SEARCH, System.nanoTime() - start);
+        return references;
+    }
+
+    /**
+     * One walk of the file, references are matched by name first and resolved only then.
+     */
+    private static void collectReferences(PsiFile file, Map<String, PsiField> fields, Map<PsiField, Collection<PsiReference>> references) {
+        if (fields.isEmpty()) return;
+
+        file.accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitReferenceExpression(PsiReferenceExpression expression) {
+                super.visitReferenceExpression(expression);
+                PsiField field = fields.get(expression.getReferenceName());
+                if (field != null && expression.isReferenceTo(field)) {
+                    references.get(field).add(expression);
+                }
+            }
+        });
+    }
+
+    private Collection<PsiReference> search(PsiField field) {
+        long start = System.nanoTime();
+        Collection<PsiReference> references = ReferencesSearch.search(field, getSearchScope(field)).findAll();
+        mReport.addStep(MigrationReport.STEP_REFERENCE_SEARCH, System.nanoTime() - start);
+        return references;
+    }
+
+    private static SearchScope getSearchScope(PsiField field) {
+        PsiFile file = field.getContainingFile();
+        // a preview runs on a non-physical copy, which no index knows, only the copy itself can refer to its fields
+        if (file != null && !file.isPhysical()) {
+            return new LocalSearchScope(file);
+        }
+        // the use scope is already a local scope for private fields and the package for package-private ones
+        SearchScope useScope = field.getUseScope();
+        return useScope.intersectWith(GlobalSearchScope.projectScope(field.getProject()));
+    }
+
+    private static boolean isValid(Collection<PsiReference> references) {
+        for (PsiReference reference : references) {
+            if (!reference.getElement().isValid()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
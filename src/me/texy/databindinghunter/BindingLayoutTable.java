@@ -0,0 +1,81 @@
+package me.texy.databindinghunter;
+
+import me.texy.databindinghunter.util.StringUtil;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Qualified binding class name to layout info, frozen once the layout scan is done so the java phase reads it without
+ * locks. Layouts of a module whose app package is unknown are keyed by simple name.
+ */
+public final class BindingLayoutTable {
+
+    // <com.demo.databinding.DemoBinding,LayoutXmlInfo>
+    private final Map<String, LayoutXmlInfo> mBindingLayouts;
+
+    private BindingLayoutTable(Map<String, LayoutXmlInfo> bindingLayouts) {
+        this.mBindingLayouts = Collections.unmodifiableMap(new HashMap<>(bindingLayouts));
+    }
+
+    public LayoutXmlInfo get(String qualifiedBindingName) {
+        LayoutXmlInfo layoutXmlInfo = mBindingLayouts.get(qualifiedBindingName);
+        if (layoutXmlInfo == null) {
+            layoutXmlInfo = mBindingLayouts.get(StringUtil.getClassNameFromPath(qualifiedBindingName));
+        }
+        return layoutXmlInfo;
+    }
+
+    /**
+     * @param bindingType binding class as written in the java file, a simple name is qualified with the matching
+     *                    binding import of that file
+     */
+    public LayoutXmlInfo find(String bindingType, Collection<String> dataBindingImports) {
+        if (bindingType.indexOf('.') == -1) {
+            for (String dataBindingImport : dataBindingImports) {
+                if (bindingType.equals(StringUtil.getClassNameFromPath(dataBindingImport))) {
+                    return get(dataBindingImport);
+                }
+            }
+        }
+        return get(bindingType);
+    }
+
+    public boolean contains(String qualifiedBindingName) {
+        return get(qualifiedBindingName) != null;
+    }
+
+    public Set<String> getBindingNames() {
+        return mBindingLayouts.keySet();
+    }
+
+    public int size() {
+        return mBindingLayouts.size();
+    }
+
+    public static class Builder {
+
+        private final Map<String, LayoutXmlInfo> mBindingLayouts = new ConcurrentHashMap<>();
+
+        /**
+         * Qualifier variants of a layout share the binding name, their ids are merged.
+         */
+        public Builder put(String qualifiedBindingName, LayoutXmlInfo layoutXmlInfo) {
+            mBindingLayouts.merge(qualifiedBindingName, layoutXmlInfo, LayoutXmlInfo::merge);
+            return this;
+        }
+
+        public Builder putAll(BindingLayoutTable table) {
+            mBindingLayouts.putAll(table.mBindingLayouts);
+            return this;
+        }
+
+        public BindingLayoutTable build() {
+            return new BindingLayoutTable(mBindingLayouts);
+        }
+    }
+}
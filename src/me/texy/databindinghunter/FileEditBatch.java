@@ -0,0 +1,142 @@
+package me.texy.databindinghunter;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports, fields and findViewById statements the hunters want in one java file, collected while rewriting and
+ * inserted together by {@link #commit()}. Duplicates are dropped on the way, and only the inserted elements
+ * get their references shortened and are reformatted.
+ */
+public class FileEditBatch {
+
+    private final PsiJavaFile mFile;
+    private final Project mProject;
+    private final PsiElementFactory mElementFactory;
+    private final Set<String> mImports = new LinkedHashSet<>();
+    private Set<String> mExistingImports;
+    // class -> field declarations, such as "private TextView mTitleView;"
+    private final Map<PsiClass, Set<String>> mFields = new LinkedHashMap<>();
+    private final Map<PsiClass, Set<String>> mFieldNames = new LinkedHashMap<>();
+    // statement -> statements to insert after it, in order
+    private final Map<PsiStatement, Set<String>> mStatements = new LinkedHashMap<>();
+
+    public FileEditBatch(PsiJavaFile file) {
+        this.mFile = file;
+        this.mProject = file.getProject();
+        this.mElementFactory = JavaPsiFacade.getElementFactory(mProject);
+    }
+
+    public void addImport(String qualifiedName) {
+        if (mExistingImports == null) {
+            mExistingImports = new HashSet<>();
+            PsiImportList importList = mFile.getImportList();
+            if (importList != null) {
+                for (PsiImportStatement importStatement : importList.getImportStatements()) {
+                    mExistingImports.add(importStatement.getQualifiedName());
+                }
+            }
+        }
+        if (!mExistingImports.contains(qualifiedName)) {
+            mImports.add(qualifiedName);
+        }
+    }
+
+    /**
+     * Whether the class declares the field already or it is pending in this batch.
+     */
+    public boolean hasField(PsiClass psiClass, String fieldName) {
+        return psiClass.findFieldByName(fieldName, false) != null || getOrCreate(mFieldNames, psiClass).contains(fieldName);
+    }
+
+    public void addField(PsiClass psiClass, String fieldName, String fieldText) {
+        if (getOrCreate(mFieldNames, psiClass).add(fieldName)) {
+            getOrCreate(mFields, psiClass).add(fieldText);
+        }
+    }
+
+    public void addStatementAfter(PsiStatement anchor, String statementText) {
+        getOrCreate(mStatements, anchor).add(statementText);
+    }
+
+    public boolean isEmpty() {
+        return mImports.isEmpty() && mFields.isEmpty() && mStatements.isEmpty();
+    }
+
+    /**
+     * Must run in a write action for physical files.
+     */
+    public void commit() {
+        List<PsiElement> inserted = new ArrayList<>();
+        for (Map.Entry<PsiClass, Set<String>> fields : mFields.entrySet()) {
+            PsiClass psiClass = fields.getKey();
+            if (!psiClass.isValid()) continue;
+
+            for (String fieldText : fields.getValue()) {
+                inserted.add(psiClass.add(mElementFactory.createFieldFromText(fieldText, psiClass)));
+            }
+        }
+        for (Map.Entry<PsiStatement, Set<String>> statements : mStatements.entrySet()) {
+            PsiElement anchor = statements.getKey();
+            // the statement was replaced by a later rewrite
+            if (!anchor.isValid()) continue;
+
+            for (String statementText : statements.getValue()) {
+                anchor = anchor.getParent().addAfter(mElementFactory.createStatementFromText(statementText, anchor), anchor);
+                inserted.add(anchor);
+            }
+        }
+        PsiImportList importList = mFile.getImportList();
+        if (importList != null && !mImports.isEmpty()) {
+            // parsed from their names, looking every class up in the whole project costs more than the rewrite
+            for (PsiImportStatement importStatement : createImportStatements()) {
+                importList.add(importStatement);
+            }
+        }
+
+        JavaCodeStyleManager javaCodeStyleManager = JavaCodeStyleManager.getInstance(mProject);
+        CodeStyleManager codeStyleManager = CodeStyleManager.getInstance(mProject);
+        for (PsiElement element : inserted) {
+            if (!element.isValid()) continue;
+            codeStyleManager.reformat(javaCodeStyleManager.shortenClassReferences(element));
+        }
+        if (mExistingImports != null) {
+            mExistingImports.addAll(mImports);
+        }
+        mImports.clear();
+        mFields.clear();
+        mFieldNames.clear();
+        mStatements.clear();
+    }
+
+    private PsiImportStatement[] createImportStatements() {
+        StringBuilder imports = new StringBuilder();
+        for (String qualifiedName : mImports) {
+            imports.append("import ").append(qualifiedName).append(";\n");
+        }
+        PsiFile importsFile = PsiFileFactory.getInstance(mProject).createFileFromText("_Imports_." + JavaFileType.DEFAULT_EXTENSION,
+                JavaFileType.INSTANCE, imports);
+        PsiImportList importList = importsFile instanceof PsiJavaFile ? ((PsiJavaFile) importsFile).getImportList() : null;
+        return importList == null ? PsiImportStatement.EMPTY_ARRAY : importList.getImportStatements();
+    }
+
+    private static <K> Set<String> getOrCreate(Map<K, Set<String>> map, K key) {
+        Set<String> values = map.get(key);
+        if (values == null) {
+            values = new LinkedHashSet<>();
+            map.put(key, values);
+        }
+        return values;
+    }
+}
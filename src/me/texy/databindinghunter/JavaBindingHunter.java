@@ -1,131 +1,186 @@
 package me.texy.databindinghunter;
 
-import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
-import com.intellij.psi.codeStyle.JavaCodeStyleManager;
-import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.LocalSearchScope;
 import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import me.texy.databindinghunter.report.MigrationReport;
 import me.texy.databindinghunter.util.StringUtil;
 import me.texy.databindinghunter.util.ViewUtil;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.util.TextUtils;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class JavaBindingHunter {
 
     private static final String CLASS_PATH_DATA_BINDING_UTIL = "android.databinding.DataBindingUtil";
     private static final String CLASS_NAME_DATA_BINDING_UTIL = "DataBindingUtil";
-    private static final String CLASS_PATH_VIEW_DATA_BINDING = "android.databinding.ViewDataBinding";
 
-    // <DemoBinding,LayoutXmlInfo>
-    private final HashMap<String, LayoutXmlInfo> mBindingXmlInfo;
+    private final BindingLayoutTable mBindingXmlInfo;
+    private final MigrationReport mReport;
     private PsiClass mClass;
     private PsiElementFactory mElementFactory;
     private Set<String> mDataBindingImports = new HashSet<>();
     private HashMap<String, String> mViewFields = new HashMap<>();
+    private BindingFieldReferences mFieldReferences;
+    // calls already reported as unsupported, a call without a holder is looked at twice
+    private final Set<PsiMethodCallExpression> mUnsupportedCalls = new HashSet<>();
+    private final FileEditBatch mEditBatch;
+    // a batch passed in is shared with the other classes of the file and committed by the caller
+    private final boolean mOwnsEditBatch;
+    // qualified binding -> qualified view holder, for bindings whose holder class has been generated
+    private final Map<String, String> mViewHolders;
+
+    public JavaBindingHunter(PsiClass psiClass, BindingLayoutTable bindingLayouts) {
+        this(psiClass, bindingLayouts, new MigrationReport(psiClass.getName()));
+    }
+
+    public JavaBindingHunter(PsiClass psiClass, BindingLayoutTable bindingLayouts, MigrationReport report) {
+        this(psiClass, bindingLayouts, report, null);
+    }
+
+    public JavaBindingHunter(PsiClass psiClass, BindingLayoutTable bindingLayouts, MigrationReport report, FileEditBatch editBatch) {
+        this(psiClass, bindingLayouts, report, editBatch, Collections.emptyMap());
+    }
 
-    public JavaBindingHunter(PsiClass psiClass, HashMap<String, LayoutXmlInfo> bindingLayouts) {
+    /**
+     * @param viewHolders qualified binding -> qualified view holder; these bindings are replaced by their holder,
+     *                    the others by findViewById calls
+     */
+    public JavaBindingHunter(PsiClass psiClass, BindingLayoutTable bindingLayouts, MigrationReport report, FileEditBatch editBatch,
+                             Map<String, String> viewHolders) {
         this.mClass = psiClass;
+        this.mViewHolders = viewHolders;
         this.mBindingXmlInfo = bindingLayouts;
+        this.mReport = report;
+        this.mOwnsEditBatch = editBatch == null;
+        this.mEditBatch = editBatch != null ? editBatch : new FileEditBatch((PsiJavaFile) psiClass.getContainingFile());
         mElementFactory = JavaPsiFacade.getElementFactory(mClass.getProject());
     }
 
     public boolean hunt() {
         if (mClass == null) return false;
 
-        JavaCodeStyleManager.getInstance(mClass.getProject()).shortenClassReferences(mClass);
-
-        searchFromImports();
+        return hunt(findDataBindingImports());
+    }
 
-        if (mDataBindingImports.size() > 0) {
-            startHuntFromImport();
-            return true;
+    /**
+     * Rewrite the class from binding imports found beforehand by {@link #findDataBindingImports()}.
+     *
+     * @return whether the class had binding calls to rewrite
+     */
+    public boolean hunt(Set<String> dataBindingImports) {
+        if (mClass == null || dataBindingImports.isEmpty()) return false;
+
+        mDataBindingImports.addAll(dataBindingImports);
+        mFieldReferences = new BindingFieldReferences(mClass, getBindingClassNames(), mReport);
+        Map<PsiMethodCallExpression, String> bindingCalls = BindingCallDetector.findBindingCalls(mClass, mDataBindingImports);
+        boolean migrated = !bindingCalls.isEmpty();
+        if (!mViewHolders.isEmpty()) {
+            bindingCalls = replaceWithViewHolders(bindingCalls);
+        }
+        deleteDataBindingImports();
+        replaceBindingCalls(bindingCalls);
+        if (mOwnsEditBatch) {
+            commitEdits(mEditBatch, mReport);
         }
-        return false;
+        return migrated;
     }
 
-    private void searchFromImports() {
-        PsiFile psiFile = mClass.getContainingFile();
-        Project project = mClass.getProject();
+    /**
+     * Insert the imports, fields and statements collected by the hunters of a file in one go.
+     */
+    public static void commitEdits(FileEditBatch editBatch, MigrationReport report) {
+        long start = System.nanoTime();
+        editBatch.commit();
+        report.addStep(MigrationReport.STEP_EDIT_COMMIT, System.nanoTime() - start);
+    }
 
+    /**
+     * Read-only pass, collect imports of DataBindingUtil and ViewDataBinding subclasses.
+     */
+    public Set<String> findDataBindingImports() {
+        PsiFile psiFile = mClass.getContainingFile();
         if (!(psiFile instanceof PsiJavaFile)) {
-            return;
+            return new HashSet<>();
         }
-        PsiJavaFile psiJavaFile = (PsiJavaFile) psiFile;
-        PsiImportList importList = psiJavaFile.getImportList();
+        return findDataBindingImports((PsiJavaFile) psiFile, new BindingClassResolver(mClass.getProject(), mBindingXmlInfo));
+    }
 
-        if (importList == null || importList.getImportStatements().length <= 0) {
-            return;
+    public static Set<String> findDataBindingImports(PsiJavaFile psiJavaFile, BindingClassResolver resolver) {
+        Set<String> dataBindingImports = new HashSet<>();
+        PsiImportList importList = psiJavaFile.getImportList();
+        if (importList == null) {
+            return dataBindingImports;
         }
 
-        for (int i = 0; i < importList.getImportStatements().length; i++) {
-            PsiImportStatement importStatement = importList.getImportStatements()[i];
+        for (PsiImportStatement importStatement : importList.getImportStatements()) {
             String importClass = importStatement.getQualifiedName();
             if (importClass == null) continue;
 
-            if (importClass.equals(CLASS_PATH_DATA_BINDING_UTIL)) {
-                mDataBindingImports.add(importClass);
-                importStatement.delete();
-                continue;
-            }
-
-            PsiClass psiClass = JavaPsiFacade.getInstance(project)
-                    .findClass(importClass, GlobalSearchScope.projectScope(project));
-            if (psiClass == null) continue;
-
-            if (psiClass.getSuperClass() != null
-                    && CLASS_PATH_VIEW_DATA_BINDING.equals(psiClass.getSuperClass().getQualifiedName())) {
-                mDataBindingImports.add(importClass);
-                importStatement.delete();
+            if (importClass.equals(CLASS_PATH_DATA_BINDING_UTIL) || resolver.isDataBindingClass(importClass)) {
+                dataBindingImports.add(importClass);
             }
         }
+        return dataBindingImports;
     }
 
-    private void startHuntFromImport() {
-        PsiMethod[] methods = mClass.getMethods();
-        for (PsiMethod method : methods) {
-            PsiCodeBlock methodBody = method.getBody();
-            if (methodBody == null) continue;
-            if (!isTextContainsDataBindingCall(method.getText())) continue;
-
-            PsiStatement[] statements = methodBody.getStatements();
-            for (PsiStatement statement : statements) {
-                replaceDataBindingElementRecursive(statement);
-            }
+    private Set<String> getBindingClassNames() {
+        Set<String> bindingClassNames = new HashSet<>();
+        for (String dataBindingImport : mDataBindingImports) {
+            bindingClassNames.add(StringUtil.getClassNameFromPath(dataBindingImport));
         }
+        return bindingClassNames;
     }
 
-    private boolean isTextContainsDataBindingCall(String text) {
-        for (String dataBindingClass : mDataBindingImports) {
-            if (text.contains(StringUtil.getClassNameFromPath(dataBindingClass))) {
-                return true;
+    private void deleteDataBindingImports() {
+        PsiImportList importList = getImportList();
+        if (importList == null) return;
+
+        for (PsiImportStatement importStatement : importList.getImportStatements()) {
+            if (mDataBindingImports.contains(importStatement.getQualifiedName())) {
+                importStatement.delete();
             }
         }
-        return false;
     }
 
-    private void replaceDataBindingElementRecursive(PsiElement statement) {
-        if (!isTextContainsDataBindingCall(statement.getText())) {
-            return;
+    private PsiImportList getImportList() {
+        PsiFile psiFile = mClass.getContainingFile();
+        if (!(psiFile instanceof PsiJavaFile)) {
+            return null;
         }
-        if (statement instanceof PsiMethodCallExpression) {
-            PsiMethodCallExpression dataBindingCall = (PsiMethodCallExpression) statement;
+        return ((PsiJavaFile) psiFile).getImportList();
+    }
 
-            for (String classPath : mDataBindingImports) {
-                if (statement.getText().startsWith(StringUtil.getClassNameFromPath(classPath))
-                        || statement.getText().startsWith(classPath)) {
-                    replaceViewBindingMethodCall(dataBindingCall, classPath);
-                    break;
+    private void replaceBindingCalls(Map<PsiMethodCallExpression, String> bindingCalls) {
+        Set<PsiMethodCallExpression> visited = new HashSet<>();
+        // a pass only finds calls again when the previous one rewrote a statement holding them
+        int maxPasses = bindingCalls.size();
+        for (int pass = 0; pass <= maxPasses; pass++) {
+            boolean stale = false;
+            for (Map.Entry<PsiMethodCallExpression, String> bindingCall : bindingCalls.entrySet()) {
+                // an earlier rewrite may have replaced the statement holding this call
+                if (!bindingCall.getKey().isValid()) {
+                    stale = true;
+                } else if (visited.add(bindingCall.getKey())) {
+                    replaceViewBindingMethodCall(bindingCall.getKey(), bindingCall.getValue());
                 }
             }
-        }
-        PsiElement[] elements = statement.getChildren();
-        for (PsiElement element : elements) {
-            replaceDataBindingElementRecursive(element);
+            if (!stale) return;
+
+            // find the replaced calls again in the new statements, the binding names no longer resolve
+            // without their imports and are matched by name
+            bindingCalls = BindingCallDetector.findBindingCalls(mClass, mDataBindingImports);
+            bindingCalls.keySet().removeAll(visited);
         }
     }
 
@@ -152,7 +207,7 @@ public class JavaBindingHunter {
                 // field declare
                 sourceDeclare = reference.resolve();
 
-                replaceAllViewRefsFromFieldBinding(viewBindingType, (PsiField) sourceDeclare, dataBindingCallParent);
+                replaceAllViewRefsFromFieldBinding(viewBindingType, (PsiField) sourceDeclare, assignmentExpression);
             }
         }
         // FooViewBinding binding = DataBindingUtil.bind
@@ -176,140 +231,111 @@ public class JavaBindingHunter {
 
     /**
      * localBinding.xxx -> xxxView
+     * localBinding.getRoot() -> localBinding
      */
     private void replaceLocalBindingFromCodeBlock(PsiType viewBindingType, PsiLocalVariable localVariable) {
-        PsiElement parent = localVariable;
-        String variableName = localVariable.getName();
-
-        while (parent != null) {
-            if (parent instanceof PsiCodeBlock) {
-                HashMap<String, String> currentFDVBIs = new HashMap<>();
-                for (PsiStatement e : ((PsiCodeBlock) parent).getStatements()) {
-                    replaceLocalBindingRefFromStatement(viewBindingType, localVariable, variableName, currentFDVBIs, e);
-                }
-                PsiElement completelyStatement = localVariable;
-                while (!currentFDVBIs.isEmpty() && completelyStatement != null) {
-                    if (completelyStatement instanceof PsiStatement && completelyStatement.getText().endsWith(";")) {
-                        for (String findViewByIdStatement : currentFDVBIs.values()) {
-                            mClass.addAfter(mElementFactory.createStatementFromText(findViewByIdStatement, null), completelyStatement);
-                        }
-                        break;
-                    }
-                    completelyStatement = completelyStatement.getParent();
-                }
-
-                break;
-            }
-            parent = parent.getParent();
-        }
-    }
-
-    private PsiStatement replaceLocalBindingRefFromStatement(PsiType viewBindingType, PsiLocalVariable localVariable, String variableName, HashMap<String, String> currentFDVBIs, PsiStatement e) {
-        if (e.getText().contains(variableName)
-                && !e.getText().contains(CLASS_NAME_DATA_BINDING_UTIL)
-                && !e.getText().contains(localVariable.getType().getPresentableText())) {
-
-            String replace = variableName;
-            String toReplace = variableName;
-            if (e.getText().contains(variableName + ".getRoot()")) {
-                toReplace = variableName + ".getRoot".concat("()");
-            } else if (e.getText().contains(variableName + ".")) {
-                String viewRef = getViewRefNameFromText(e.getText(), variableName);
-                String viewId = mBindingXmlInfo.get(viewBindingType.getPresentableText()).getIdByViewRefName(viewRef);
-                String viewType = mBindingXmlInfo.get(viewBindingType.getPresentableText()).getViewTypeByViewRefName(viewRef);
-
-                if (viewType != null) {
-                    toReplace = variableName + "." + viewRef;
-                    if (!viewRef.endsWith("View")) {
-                        viewRef += "View";
-                    }
-                    replace = viewRef;
-                    // create [TextView textView = binding.findViewById(R.id.text);]
-                    if (!currentFDVBIs.containsKey(replace)) {
-                        String findViewByIdStatement = viewType + " " + replace + " = " + variableName + ".findViewById(R.id." + viewId + ");";
-                        currentFDVBIs.put(replace, findViewByIdStatement);
+        PsiCodeBlock codeBlock = PsiTreeUtil.getParentOfType(localVariable, PsiCodeBlock.class);
+        PsiStatement declaration = PsiTreeUtil.getParentOfType(localVariable, PsiStatement.class);
+        if (codeBlock == null || declaration == null) return;
 
-                        addImport(ViewUtil.getViewClassPath(viewType));
-                    }
+        String variableName = localVariable.getName();
+        LayoutXmlInfo layoutXmlInfo = getLayoutXmlInfo(viewBindingType);
+        // <local view,findViewById statement>
+        Map<String, String> currentFDVBIs = new LinkedHashMap<>();
+        for (PsiReference reference : ReferencesSearch.search(localVariable, new LocalSearchScope(codeBlock)).findAll()) {
+            PsiElement parent = reference.getElement().getParent();
+            if (!(parent instanceof PsiReferenceExpression) || !parent.isValid()) continue;
+
+            PsiReferenceExpression access = (PsiReferenceExpression) parent;
+            if (access.getParent() instanceof PsiMethodCallExpression) {
+                // other calls on the binding are left for review
+                PsiMethodCallExpression call = (PsiMethodCallExpression) access.getParent();
+                if ("getRoot".equals(access.getReferenceName()) && call.getArgumentList().getExpressions().length == 0) {
+                    call.replace(mElementFactory.createExpressionFromText(variableName, null));
                 }
+                continue;
             }
-            if (!replace.equals(toReplace)) {
-                String newStatementText = e.getText().replace(toReplace, replace);
-                // maybe one statement contains multi binding references,so we should replace recursive
-                PsiStatement newStatement = replaceLocalBindingRefFromStatement(
-                        viewBindingType, localVariable, variableName, currentFDVBIs, mElementFactory.createStatementFromText(newStatementText, null));
-                e.replace(newStatement);
-                return newStatement;
+            String viewRef = access.getReferenceName();
+            String viewId = layoutXmlInfo == null ? null : layoutXmlInfo.getIdByViewRefName(viewRef);
+            String viewType = layoutXmlInfo == null ? null : layoutXmlInfo.getViewTypeByViewRefName(viewRef);
+            if (viewId == null || viewType == null) continue;
+
+            String viewVariable = viewRef.endsWith("View") ? viewRef : viewRef + "View";
+            // create [TextView textView = binding.findViewById(R.id.text);]
+            if (!currentFDVBIs.containsKey(viewVariable)) {
+                currentFDVBIs.put(viewVariable, viewType + " " + viewVariable + " = " + variableName + ".findViewById(R.id." + viewId + ");");
+                addImport(ViewUtil.getViewClassPath(viewType));
             }
+            access.replace(mElementFactory.createExpressionFromText(viewVariable, null));
+        }
+        for (String findViewByIdStatement : currentFDVBIs.values()) {
+            mEditBatch.addStatementAfter(declaration, findViewByIdStatement);
         }
-        return e;
     }
 
     /**
-     * get xxx from *binding.xxx*
+     * mViewBinding.xxx -> mXxxView
+     * mViewBinding.getRoot() -> mViewBinding
      */
-    private String getViewRefNameFromText(String text, String binding) {
-        int start = text.indexOf(binding + ".") + binding.length() + 1;
-        if (start == binding.length()) {
-            return null;
-        }
-        int end = start;
-        for (int i = start; i < text.length(); i++) {
-            char c = text.charAt(i);
-            if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9') {
+    private void replaceAllViewRefsFromFieldBinding(PsiType viewBindingType, PsiField viewField, PsiAssignmentExpression assignment) {
+        Collection<PsiReference> references = mFieldReferences.find(viewField);
+        for (PsiReference r : references) {
+            PsiElement element = r.getElement();
+            PsiElement parent = element.getParent();
+            // binding -> binding.xxx
+            if (!(element instanceof PsiReferenceExpression) || !(parent instanceof PsiReferenceExpression)
+                    || ((PsiReferenceExpression) parent).getQualifierExpression() != element) continue;
+
+            PsiReferenceExpression access = (PsiReferenceExpression) parent;
+            if (access.getParent() instanceof PsiMethodCallExpression) {
+                // other calls on the binding are left for review
+                PsiMethodCallExpression call = (PsiMethodCallExpression) access.getParent();
+                if ("getRoot".equals(access.getReferenceName()) && call.getArgumentList().getExpressions().length == 0) {
+                    call.replace(withoutThisQualifier((PsiReferenceExpression) element));
+                }
                 continue;
             }
-            end = i;
-            break;
+            String viewRefName = access.getReferenceName();
+            if (viewRefName == null) continue;
+
+            if (!mViewFields.containsKey(viewRefName)) {
+                createField(viewBindingType, viewRefName, viewField);
+                createFieldFindViewByIdStatement(assignment, assignment.getLExpression().getText(), viewRefName, viewBindingType);
+            }
+            if (mViewFields.get(viewRefName) != null) {
+                PsiExpression qualifier = ((PsiReferenceExpression) element).getQualifierExpression();
+                // this.mBinding.xxx -> this.mXxxView
+                String viewFieldText = qualifier == null ? mViewFields.get(viewRefName) : qualifier.getText() + "." + mViewFields.get(viewRefName);
+                access.replace(mElementFactory.createExpressionFromText(viewFieldText, access));
+            }
         }
-        return text.substring(start, end);
     }
 
     /**
-     * mViewBinding.xxx -> mXxxView
-     * mViewBinding.getRoot -> mViewBinding
+     * this.mBinding -> mBinding, other qualifiers are kept
      */
-    private void replaceAllViewRefsFromFieldBinding(PsiType viewBindingType, PsiField viewField, PsiElement
-            assignmentElement) {
-        Collection<PsiReference> references = ReferencesSearch.search(viewField, GlobalSearchScope.projectScope(mClass.getProject())).findAll();
-        for (PsiReference r : references) {
-            PsiElement parent = r.getElement().getParent();
-            if (parent instanceof PsiReferenceExpression) {
-                PsiElement integrity = parent.getParent();
-                if (integrity.getText().endsWith(".getRoot()")) {
-                    String newText = r.getElement().getText();
-                    if (newText.contains("this.")) {
-                        newText = newText.replaceAll("this.", "");
-                    }
-                    integrity.replace(mElementFactory.createReferenceFromText(newText, null));
-                } else if (integrity.getText().matches(".*.set.*\\)$")
-                        || integrity.getText().matches(".*.get.*\\)$")
-                        || integrity.getText().contains("()")) {
-//                        integrity.delete();
-                } else if (!integrity.getText().contains("\n")) {
-                    String viewRefName = getRefName(parent);
-                    if (!mViewFields.containsKey(viewRefName)) {
-                        createField(viewBindingType, viewRefName, viewField);
-                        createFieldFindViewByIdStatement(assignmentElement, ((PsiReferenceExpression) parent.getReference()).getQualifier().getText(), viewRefName, viewBindingType);
-                    }
-                    if (mViewFields.get(viewRefName) != null) {
-                        parent.replace(mElementFactory.createReferenceFromText(mViewFields.get(viewRefName), null));
-                    }
-                }
-            } else if (parent instanceof PsiBinaryExpression) {
-
-            }
+    private static PsiElement withoutThisQualifier(PsiReferenceExpression reference) {
+        PsiExpression qualifier = reference.getQualifierExpression();
+        if (!(qualifier instanceof PsiThisExpression) || ((PsiThisExpression) qualifier).getQualifier() != null) {
+            return reference;
+        }
+        PsiReferenceExpression copy = (PsiReferenceExpression) reference.copy();
+        PsiExpression copyQualifier = copy.getQualifierExpression();
+        if (copyQualifier != null) {
+            copyQualifier.delete();
         }
+        return copy;
     }
 
     private void createFieldFindViewByIdStatement(PsiElement assignmentElement, String viewRootText, String viewRefName, PsiType viewBindingType) {
         PsiElement completelyStatement = assignmentElement;
         while (completelyStatement != null) {
             if (completelyStatement instanceof PsiStatement && completelyStatement.getText().endsWith(";")) {
-                String viewId = mBindingXmlInfo.get(viewBindingType.getPresentableText()).getIdByViewRefName(viewRefName);
+                LayoutXmlInfo layoutXmlInfo = getLayoutXmlInfo(viewBindingType);
+                String viewId = layoutXmlInfo == null ? null : layoutXmlInfo.getIdByViewRefName(viewRefName);
                 if (viewId != null) {
                     String findViewByIdStatement = mViewFields.get(viewRefName) + " = " + viewRootText + ".findViewById(R.id." + viewId + ");";
-                    mClass.addAfter(mElementFactory.createStatementFromText(findViewByIdStatement, null), completelyStatement);
+                    mEditBatch.addStatementAfter((PsiStatement) completelyStatement, findViewByIdStatement);
                 }
                 break;
             }
@@ -317,16 +343,6 @@ public class JavaBindingHunter {
         }
     }
 
-    private String getRefName(PsiElement originBindingRef) {
-        PsiElement[] children = originBindingRef.getChildren();
-        for (PsiElement child : children) {
-            if (child instanceof PsiIdentifier) {
-                return child.getText();
-            }
-        }
-        return null;
-    }
-
     private void createField(PsiType viewBindingClass, String viewRefName, PsiField bindingField) {
         String newField;
         char firstChar = viewRefName.charAt(0);
@@ -334,14 +350,15 @@ public class JavaBindingHunter {
         if (!newField.endsWith("View")) {
             newField += "View";
         }
-        if (isFieldExist(newField)) {
+        if (mEditBatch.hasField(mClass, newField)) {
             newField += "2";
         }
         mViewFields.put(viewRefName, newField);
 
         PsiModifierList modifierList = bindingField.getModifierList();
         String modifier = modifierList == null || TextUtils.isEmpty(modifierList.getText()) ? "" : modifierList.getText() + " ";
-        String type = mBindingXmlInfo.get(viewBindingClass.getPresentableText()).getViewTypeByViewRefName(viewRefName);
+        LayoutXmlInfo layoutXmlInfo = getLayoutXmlInfo(viewBindingClass);
+        String type = layoutXmlInfo == null ? null : layoutXmlInfo.getViewTypeByViewRefName(viewRefName);
         if (type == null) return;
 
         String simpleType = type;
@@ -349,37 +366,136 @@ public class JavaBindingHunter {
         if (type.contains(".")) {
             simpleType = type.substring(type.lastIndexOf(".") + 1);
         }
-        PsiField fieldFromText = mElementFactory.createFieldFromText(modifier + simpleType + " " + newField + ";", mClass);
-        mClass.add(fieldFromText);
+        mEditBatch.addField(mClass, newField, modifier + simpleType + " " + newField + ";");
         addImport(ViewUtil.getViewClassPath(type));
     }
 
-    private boolean isFieldExist(String newField) {
-        PsiField[] fields = mClass.getFields();
+    /**
+     * The binding type is written with its simple name, it is qualified through the imports of the file.
+     */
+    private LayoutXmlInfo getLayoutXmlInfo(PsiType bindingType) {
+        return mBindingXmlInfo.find(bindingType.getPresentableText(), mDataBindingImports);
+    }
+
+    /**
+     * FooBinding.inflate(inflater) -> new FooViews(inflater.inflate(R.layout.foo, null, false)), and every reference
+     * to FooBinding, its import included, is renamed to FooViews. The holder has the fields and getRoot() of the binding,
+     * so the usages stay as they are.
+     *
+     * @return the calls of bindings without a holder, left for the findViewById rewrite
+     */
+    private Map<PsiMethodCallExpression, String> replaceWithViewHolders(Map<PsiMethodCallExpression, String> bindingCalls) {
+        Map<PsiMethodCallExpression, String> remainingCalls = new LinkedHashMap<>();
+        Map<PsiMethodCallExpression, String> holderCalls = new LinkedHashMap<>();
+        for (Map.Entry<PsiMethodCallExpression, String> bindingCall : bindingCalls.entrySet()) {
+            PsiMethodCallExpression call = bindingCall.getKey();
+            // DataBindingUtil.inflate/bind return the binding the call site asks for
+            String binding = CLASS_PATH_DATA_BINDING_UTIL.equals(bindingCall.getValue()) ? getQualifiedBinding(call.getType()) : bindingCall.getValue();
+            String holder = binding == null ? null : mViewHolders.get(binding);
+            String inflateText = holder == null ? null : getReplacementText(call, bindingCall.getValue());
+            if (inflateText == null) {
+                remainingCalls.put(call, bindingCall.getValue());
+            } else {
+                holderCalls.put(call, "new " + StringUtil.getClassNameFromPath(holder) + "(" + inflateText + ")");
+            }
+        }
+
+        // collected before any rewrite, references stop resolving once the calls are replaced
+        List<PsiJavaCodeReferenceElement> bindingReferences = new ArrayList<>();
+        Map<String, String> holdersBySimpleName = getViewHoldersBySimpleName();
+        mClass.accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitReferenceElement(PsiJavaCodeReferenceElement reference) {
+                super.visitReferenceElement(reference);
+                String binding = holdersBySimpleName.get(reference.getReferenceName());
+                if (binding == null) return;
+
+                PsiElement target = reference.resolve();
+                // generated binding classes are often missing from the index, trust the name then
+                if (target == null || target instanceof PsiClass && binding.equals(((PsiClass) target).getQualifiedName())) {
+                    bindingReferences.add(reference);
+                }
+            }
+        });
+
+        for (Map.Entry<PsiMethodCallExpression, String> holderCall : holderCalls.entrySet()) {
+            holderCall.getKey().replace(mElementFactory.createExpressionFromText(holderCall.getValue(), holderCall.getKey()));
+        }
+        for (PsiJavaCodeReferenceElement reference : bindingReferences) {
+            // the qualifier of a replaced call is gone with it
+            if (reference.isValid()) {
+                reference.handleElementRename(StringUtil.getClassNameFromPath(mViewHolders.get(holdersBySimpleName.get(reference.getReferenceName()))));
+            }
+        }
+        // the holder sits in the package of the binding, so renaming the import is enough
+        PsiImportList importList = getImportList();
+        if (importList != null) {
+            for (PsiImportStatement importStatement : importList.getImportStatements()) {
+                String holder = mViewHolders.get(importStatement.getQualifiedName());
+                if (holder != null && importStatement.getImportReference() != null) {
+                    importStatement.getImportReference().handleElementRename(StringUtil.getClassNameFromPath(holder));
+                }
+            }
+        }
+        return remainingCalls;
+    }
+
+    /**
+     * @return simple binding name -> qualified binding, for the imported bindings that have a holder
+     */
+    private Map<String, String> getViewHoldersBySimpleName() {
+        Map<String, String> bindings = new HashMap<>();
+        for (String dataBindingImport : mDataBindingImports) {
+            if (mViewHolders.containsKey(dataBindingImport)) {
+                bindings.put(StringUtil.getClassNameFromPath(dataBindingImport), dataBindingImport);
+            }
+        }
+        return bindings;
+    }
+
+    /**
+     * A binding type that does not resolve is qualified through the imports of the file.
+     */
+    private String getQualifiedBinding(PsiType bindingType) {
+        if (bindingType == null) return null;
 
-        for (PsiField field : fields) {
-            if (field.getText().equals(newField)) {
-                return true;
+        String typeText = bindingType.getCanonicalText();
+        if (typeText.indexOf('.') != -1) return typeText;
+
+        for (String dataBindingImport : mDataBindingImports) {
+            if (typeText.equals(StringUtil.getClassNameFromPath(dataBindingImport))) {
+                return dataBindingImport;
             }
         }
-        return false;
+        return null;
     }
 
     private void replaceBindingMethodCallExpression(PsiMethodCallExpression dataBindingCall, String subclass) {
+        String replacementText = getReplacementText(dataBindingCall, subclass);
+        if (replacementText != null) {
+            dataBindingCall.replace(mElementFactory.createExpressionFromText(replacementText, null));
+        }
+    }
+
+    /**
+     * DataBindingUtil/FooBinding.bind(view) -> view, DataBindingUtil/FooBinding.inflate(...) -> inflater.inflate(...)
+     *
+     * @return null if the call can not be rewritten
+     */
+    private String getReplacementText(PsiMethodCallExpression dataBindingCall, String subclass) {
         String plainText = dataBindingCall.getText();
 
         String toReplace = StringUtil.getClassNameFromPath(subclass);
         if (plainText.contains(subclass)) {
             toReplace = subclass;
         }
-        PsiExpression newMethodCallElement = null;
         if (plainText.contains(toReplace + ".bind")) {
             PsiExpression[] expressions = dataBindingCall.getArgumentList().getExpressions();
             if (expressions.length != 1) {
-                System.out.print("bind method's parameters not invalid,only support bind(View view)");
-                return;
+                reportUnsupportedCall(dataBindingCall, "only bind(View view) is supported");
+                return null;
             }
-            newMethodCallElement = mElementFactory.createExpressionFromText(expressions[0].getText(), null);
+            return expressions[0].getText();
         } else if (plainText.contains(toReplace + ".inflate")) {
             PsiExpression[] expressions = dataBindingCall.getArgumentList().getExpressions();
             StringBuilder inflateText = new StringBuilder(expressions[0].getText() + ".inflate(");
@@ -395,47 +511,39 @@ public class JavaBindingHunter {
                 }
             } else {
                 if (expressions.length != 1 && expressions.length != 3) {
-                    System.out.print("inflate method's parameters not invalid,only support:" +
-                            " inflate(@NonNull LayoutInflater inflater, @Nullable ViewGroup root, boolean attachToRoot) and" +
-                            " inflate(@NonNull LayoutInflater inflater)");
-                    return;
+                    reportUnsupportedCall(dataBindingCall, "only inflate(LayoutInflater inflater) and" +
+                            " inflate(LayoutInflater inflater, ViewGroup root, boolean attachToRoot) are supported");
+                    return null;
                 }
-                String bindingLayoutName = StringUtil.getClassNameFromPath(toReplace);
-                String layoutResource = "R.layout." + mBindingXmlInfo.get(bindingLayoutName).getXmlFile().getName().replaceAll(".xml", "");
+                LayoutXmlInfo layoutXmlInfo = mBindingXmlInfo.get(subclass);
+                if (layoutXmlInfo == null) return null;
+
+                String layoutResource = "R.layout." + layoutXmlInfo.getLayoutName();
                 if (expressions.length == 1) {
-                    inflateText.append(layoutResource).append("null, false)");
+                    inflateText.append(layoutResource).append(", null, false)");
                 } else {
                     inflateText.append(layoutResource).append(", ")
                             .append(expressions[1].getText()).append(", ")
                             .append(expressions[2].getText()).append(")");
                 }
             }
-            newMethodCallElement = mElementFactory.createExpressionFromText(inflateText.toString(), null);
-        }
-        if (newMethodCallElement != null) {
-            dataBindingCall.replace(newMethodCallElement);
+            return inflateText.toString();
         }
+        return null;
     }
 
-    private void addImport(String packagePath) {
-        PsiFile psiFile = mClass.getContainingFile();
+    /**
+     * The call is left as it is, the report tells which one and why.
+     */
+    private void reportUnsupportedCall(PsiMethodCallExpression dataBindingCall, String reason) {
+        if (!mUnsupportedCalls.add(dataBindingCall)) return;
 
-        if (!(psiFile instanceof PsiJavaFile)) {
-            return;
-        }
-        PsiJavaFile psiJavaFile = (PsiJavaFile) psiFile;
-        PsiImportList importList = psiJavaFile.getImportList();
+        mReport.addError(mClass.getContainingFile().getName(),
+                new IllegalArgumentException("Can not rewrite " + dataBindingCall.getText() + ", " + reason));
+    }
 
-        if (importList != null && importList.getImportStatements().length > 0) {
-            for (PsiImportStatement s : importList.getImportStatements()) {
-                if (s.getQualifiedName().equals(packagePath)) {
-                    return;
-                }
-            }
-        }
-        PsiClass clazz = JavaPsiFacade.getInstance(mClass.getProject()).findClass(packagePath, GlobalSearchScope.allScope(mClass.getProject()));
-        if (clazz != null)
-            importList.add(mElementFactory.createImportStatement(clazz));
+    private void addImport(String packagePath) {
+        mEditBatch.addImport(packagePath);
     }
 
 }
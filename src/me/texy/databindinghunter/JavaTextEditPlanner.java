@@ -0,0 +1,366 @@
+package me.texy.databindinghunter;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import me.texy.databindinghunter.report.MigrationReport;
+import me.texy.databindinghunter.util.StringUtil;
+import me.texy.databindinghunter.util.ViewUtil;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Plans what {@link JavaBindingHunter} does as {@link JavaTextEdits}, read-only: binding calls become inflater calls,
+ * binding declarations become View, binding.xxx becomes a view field or local found with findViewById, and imports
+ * are fixed up. References are found through psi, nothing is matched on text.
+ * <p>
+ * Returns null for files it can not plan safely, such as overlapping edits or a binding field declared in another
+ * file, those go through the psi rewrite.
+ */
+public class JavaTextEditPlanner {
+
+    private static final String CLASS_PATH_VIEW = "android.view.View";
+    private static final String CLASS_NAME_DATA_BINDING_UTIL = "DataBindingUtil";
+    private static final String METHOD_BIND = "bind";
+    private static final String METHOD_INFLATE = "inflate";
+    private static final String METHOD_GET_ROOT = "getRoot";
+
+    private final PsiJavaFile mFile;
+    private final Set<String> mDataBindingImports;
+    private final BindingLayoutTable mBindingLayouts;
+    private final MigrationReport mReport;
+    private final PsiDocumentManager mPsiDocumentManager;
+    private final JavaTextEdits mEdits = new JavaTextEdits();
+    private final Map<VirtualFile, Long> mStamps = new HashMap<>();
+    private final Set<String> mImports = new TreeSet<>();
+    private final Set<PsiField> mPlannedFields = new HashSet<>();
+    // binding field -> <viewRefName,new view field>
+    private final Map<PsiField, Map<String, String>> mViewFields = new HashMap<>();
+    private final Map<PsiClass, Set<String>> mNewFieldNames = new HashMap<>();
+    private int mSequence;
+    private boolean mFailed;
+
+    private JavaTextEditPlanner(PsiJavaFile file, Set<String> dataBindingImports, BindingLayoutTable bindingLayouts, MigrationReport report) {
+        this.mFile = file;
+        this.mDataBindingImports = dataBindingImports;
+        this.mBindingLayouts = bindingLayouts;
+        this.mReport = report;
+        this.mPsiDocumentManager = PsiDocumentManager.getInstance(file.getProject());
+    }
+
+    /**
+     * Must run in a read action.
+     *
+     * @return the edits, or null if the file has to go through the psi rewrite
+     */
+    public static JavaTextEdits plan(PsiJavaFile file, Set<String> dataBindingImports, BindingLayoutTable bindingLayouts, MigrationReport report) {
+        return new JavaTextEditPlanner(file, dataBindingImports, bindingLayouts, report).plan();
+    }
+
+    private JavaTextEdits plan() {
+        PsiImportList importList = mFile.getImportList();
+        if (importList == null) return null;
+
+        Set<String> bindingClassNames = new HashSet<>();
+        for (String dataBindingImport : mDataBindingImports) {
+            bindingClassNames.add(StringUtil.getClassNameFromPath(dataBindingImport));
+        }
+        for (PsiClass psiClass : mFile.getClasses()) {
+            BindingFieldReferences fieldReferences = new BindingFieldReferences(psiClass, bindingClassNames, mReport);
+            Map<PsiMethodCallExpression, String> bindingCalls = BindingCallDetector.findBindingCalls(psiClass, mDataBindingImports);
+            if (!bindingCalls.isEmpty()) {
+                mEdits.addMigratedClass(psiClass.getName());
+            }
+            for (Map.Entry<PsiMethodCallExpression, String> bindingCall : bindingCalls.entrySet()) {
+                planBindingCall(bindingCall.getKey(), bindingCall.getValue(), fieldReferences);
+                if (mFailed) return null;
+            }
+        }
+        planImports(importList);
+        return !mFailed && mEdits.sortAndCheckOverlaps() ? mEdits : null;
+    }
+
+    private void planBindingCall(PsiMethodCallExpression bindingCall, String bindingClass, BindingFieldReferences fieldReferences) {
+        String replacement = getCallReplacement(bindingCall, bindingClass);
+        if (replacement != null) {
+            // FooBinding.inflate(inflater).getRoot() is the view already
+            PsiMethodCallExpression getRootCall = getRootCall(bindingCall);
+            replace(getRootCall != null ? getRootCall : bindingCall, replacement);
+        }
+
+        PsiElement parent = bindingCall.getParent();
+        if (parent instanceof PsiAssignmentExpression) {
+            PsiExpression target = ((PsiAssignmentExpression) parent).getLExpression();
+            PsiElement field = target instanceof PsiReferenceExpression ? ((PsiReferenceExpression) target).resolve() : null;
+            if (field instanceof PsiField && mPlannedFields.add((PsiField) field)) {
+                planField((PsiField) field, (PsiAssignmentExpression) parent, fieldReferences);
+            }
+        } else if (parent instanceof PsiLocalVariable) {
+            planLocalVariable((PsiLocalVariable) parent);
+        }
+    }
+
+    /**
+     * mBinding.xxx -> mXxxView, declared next to mBinding and found after the assignment,
+     * mBinding.getRoot() -> mBinding
+     */
+    private void planField(PsiField field, PsiAssignmentExpression assignment, BindingFieldReferences fieldReferences) {
+        // new fields and their imports would go to another file
+        if (field.getContainingFile() != mFile) {
+            mFailed = true;
+            return;
+        }
+        LayoutXmlInfo layout = mBindingLayouts.find(field.getType().getCanonicalText(), mDataBindingImports);
+        replaceTypeWithView(field.getTypeElement());
+        PsiStatement assignmentStatement = PsiTreeUtil.getParentOfType(assignment, PsiStatement.class);
+
+        for (PsiReference reference : fieldReferences.find(field)) {
+            PsiReferenceExpression access = getQualifiedAccess(reference.getElement());
+            if (access == null) continue;
+
+            PsiMethodCallExpression call = getCall(access);
+            if (call != null) {
+                // other calls on the binding are left for review
+                if (isGetRoot(call)) {
+                    replace(call, reference.getElement().getText());
+                }
+                continue;
+            }
+            String viewRefName = access.getReferenceName();
+            String viewType = layout == null ? null : layout.getViewTypeByViewRefName(viewRefName);
+            if (viewType == null) continue;
+
+            String viewField = getViewField(field, layout, viewRefName, viewType, assignmentStatement, assignment.getLExpression().getText());
+            PsiExpression qualifier = ((PsiReferenceExpression) reference.getElement()).getQualifierExpression();
+            replace(access, qualifier == null ? viewField : qualifier.getText() + "." + viewField);
+        }
+    }
+
+    private String getViewField(PsiField field, LayoutXmlInfo layout, String viewRefName, String viewType,
+                                PsiStatement assignmentStatement, String bindingText) {
+        Map<String, String> viewFields = mViewFields.computeIfAbsent(field, key -> new HashMap<>());
+        String viewField = viewFields.get(viewRefName);
+        if (viewField != null) return viewField;
+
+        viewField = "m" + StringUtils.capitalize(viewRefName);
+        if (!viewField.endsWith("View")) {
+            viewField += "View";
+        }
+        PsiClass psiClass = field.getContainingClass();
+        Set<String> newFieldNames = mNewFieldNames.computeIfAbsent(psiClass, key -> new HashSet<>());
+        if (psiClass == null || psiClass.findFieldByName(viewField, false) != null || newFieldNames.contains(viewField)) {
+            viewField += "2";
+        }
+        newFieldNames.add(viewField);
+        viewFields.put(viewRefName, viewField);
+
+        PsiModifierList modifierList = field.getModifierList();
+        String modifiers = modifierList == null || modifierList.getTextLength() == 0 ? "" : modifierList.getText() + " ";
+        insertAfter(field, modifiers + getSimpleName(viewType) + " " + viewField + ";");
+        addImport(ViewUtil.getViewClassPath(viewType));
+
+        String viewId = layout.getIdByViewRefName(viewRefName);
+        if (assignmentStatement != null && viewId != null) {
+            insertAfter(assignmentStatement, viewField + " = " + bindingText + ".findViewById(R.id." + viewId + ");");
+        }
+        return viewField;
+    }
+
+    /**
+     * binding.xxx -> xxxView, declared after the binding, binding.getRoot() -> binding
+     */
+    private void planLocalVariable(PsiLocalVariable variable) {
+        LayoutXmlInfo layout = mBindingLayouts.find(variable.getType().getCanonicalText(), mDataBindingImports);
+        replaceTypeWithView(variable.getTypeElement());
+
+        PsiElement declaration = variable.getParent();
+        PsiCodeBlock codeBlock = PsiTreeUtil.getParentOfType(variable, PsiCodeBlock.class);
+        if (!(declaration instanceof PsiDeclarationStatement) || codeBlock == null) return;
+
+        // <viewRefName,local view>
+        Map<String, String> viewVariables = new LinkedHashMap<>();
+        for (PsiReference reference : ReferencesSearch.search(variable, new LocalSearchScope(codeBlock)).findAll()) {
+            PsiReferenceExpression access = getQualifiedAccess(reference.getElement());
+            if (access == null) continue;
+
+            PsiMethodCallExpression call = getCall(access);
+            if (call != null) {
+                if (isGetRoot(call)) {
+                    replace(call, variable.getName());
+                }
+                continue;
+            }
+            String viewRefName = access.getReferenceName();
+            String viewType = layout == null ? null : layout.getViewTypeByViewRefName(viewRefName);
+            String viewId = layout == null ? null : layout.getIdByViewRefName(viewRefName);
+            if (viewType == null || viewId == null) continue;
+
+            String viewVariable = viewVariables.get(viewRefName);
+            if (viewVariable == null) {
+                viewVariable = viewRefName.endsWith("View") ? viewRefName : viewRefName + "View";
+                viewVariables.put(viewRefName, viewVariable);
+                insertAfter(declaration, getSimpleName(viewType) + " " + viewVariable + " = "
+                        + variable.getName() + ".findViewById(R.id." + viewId + ");");
+                addImport(ViewUtil.getViewClassPath(viewType));
+            }
+            replace(access, viewVariable);
+        }
+    }
+
+    private String getCallReplacement(PsiMethodCallExpression bindingCall, String bindingClass) {
+        String methodName = bindingCall.getMethodExpression().getReferenceName();
+        PsiExpression[] arguments = bindingCall.getArgumentList().getExpressions();
+        if (METHOD_BIND.equals(methodName)) {
+            return arguments.length == 1 ? arguments[0].getText() : null;
+        }
+        if (!METHOD_INFLATE.equals(methodName) || arguments.length == 0) return null;
+
+        StringBuilder inflate = new StringBuilder(arguments[0].getText()).append(".inflate(");
+        String bindingName = StringUtil.getClassNameFromPath(bindingClass);
+        if (CLASS_NAME_DATA_BINDING_UTIL.equals(bindingName)) {
+            for (int i = 1; i < arguments.length; i++) {
+                inflate.append(i > 1 ? ", " : "").append(arguments[i].getText());
+            }
+            return inflate.append(")").toString();
+        }
+        LayoutXmlInfo layout = mBindingLayouts.get(bindingClass);
+        if (layout == null) return null;
+
+        inflate.append("R.layout.").append(layout.getLayoutName());
+        if (arguments.length == 1) {
+            return inflate.append(", null, false)").toString();
+        } else if (arguments.length == 3) {
+            return inflate.append(", ").append(arguments[1].getText()).append(", ").append(arguments[2].getText()).append(")").toString();
+        }
+        return null;
+    }
+
+    private void replaceTypeWithView(PsiTypeElement typeElement) {
+        if (typeElement == null) return;
+
+        replace(typeElement, "View");
+        addImport(CLASS_PATH_VIEW);
+    }
+
+    /**
+     * Delete the binding imports, add the new ones after the last import that stays.
+     */
+    private void planImports(PsiImportList importList) {
+        Set<String> existingImports = new HashSet<>();
+        PsiImportStatement lastKept = null;
+        for (PsiImportStatement importStatement : importList.getImportStatements()) {
+            if (!mDataBindingImports.contains(importStatement.getQualifiedName())) {
+                existingImports.add(importStatement.getQualifiedName());
+                lastKept = importStatement;
+                continue;
+            }
+            int length = importStatement.getTextLength();
+            PsiElement next = importStatement.getNextSibling();
+            if (next instanceof PsiWhiteSpace && next.getText().indexOf('\n') >= 0) {
+                length += next.getText().indexOf('\n') + 1;
+            }
+            edit(importStatement, importStatement.getTextRange().getStartOffset(), length, "");
+        }
+
+        String packageName = mFile.getPackageName();
+        for (String newImport : mImports) {
+            if (existingImports.contains(newImport) || StringUtil.getClassNameFromPath(newImport).equals(newImport)) continue;
+            if (newImport.substring(0, newImport.lastIndexOf('.')).equals(packageName)) continue;
+
+            if (lastKept != null) {
+                edit(lastKept, lastKept.getTextRange().getEndOffset(), 0, "\nimport " + newImport + ";");
+            } else {
+                edit(importList, importList.getTextRange().getStartOffset(), 0, "import " + newImport + ";\n");
+            }
+        }
+    }
+
+    private void addImport(String qualifiedName) {
+        mImports.add(qualifiedName);
+    }
+
+    private void replace(PsiElement element, String replacement) {
+        edit(element, element.getTextRange().getStartOffset(), element.getTextLength(), replacement);
+    }
+
+    private void insertAfter(PsiElement anchor, String text) {
+        edit(anchor, anchor.getTextRange().getEndOffset(), 0, "\n" + getIndent(anchor) + text);
+    }
+
+    private void edit(PsiElement context, int offset, int length, String replacement) {
+        VirtualFile file = context.getContainingFile().getVirtualFile();
+        Long stamp = file == null ? null : mStamps.get(file);
+        if (stamp == null && file != null) {
+            Document document = FileDocumentManager.getInstance().getDocument(file);
+            // offsets are only valid for a document in sync with its psi
+            if (document != null && mPsiDocumentManager.isCommitted(document)) {
+                stamp = document.getModificationStamp();
+                mStamps.put(file, stamp);
+            }
+        }
+        if (stamp == null) {
+            mFailed = true;
+            return;
+        }
+        mEdits.add(file, stamp, new TextEdit(offset, length, replacement, mSequence++));
+    }
+
+    /**
+     * binding -> binding.xxx
+     */
+    private static PsiReferenceExpression getQualifiedAccess(PsiElement bindingReference) {
+        if (!(bindingReference instanceof PsiReferenceExpression)) return null;
+
+        PsiElement parent = bindingReference.getParent();
+        if (parent instanceof PsiReferenceExpression && ((PsiReferenceExpression) parent).getQualifierExpression() == bindingReference) {
+            return (PsiReferenceExpression) parent;
+        }
+        return null;
+    }
+
+    private static PsiMethodCallExpression getCall(PsiReferenceExpression methodExpression) {
+        PsiElement parent = methodExpression.getParent();
+        if (parent instanceof PsiMethodCallExpression && ((PsiMethodCallExpression) parent).getMethodExpression() == methodExpression) {
+            return (PsiMethodCallExpression) parent;
+        }
+        return null;
+    }
+
+    /**
+     * call -> call.getRoot()
+     */
+    private static PsiMethodCallExpression getRootCall(PsiMethodCallExpression call) {
+        PsiElement parent = call.getParent();
+        if (!(parent instanceof PsiReferenceExpression)) return null;
+
+        PsiMethodCallExpression outer = getCall((PsiReferenceExpression) parent);
+        return outer != null && isGetRoot(outer) ? outer : null;
+    }
+
+    private static boolean isGetRoot(PsiMethodCallExpression call) {
+        return METHOD_GET_ROOT.equals(call.getMethodExpression().getReferenceName())
+                && call.getArgumentList().getExpressions().length == 0;
+    }
+
+    private static String getSimpleName(String type) {
+        return type.substring(type.lastIndexOf('.') + 1);
+    }
+
+    private static String getIndent(PsiElement element) {
+        PsiElement previous = element.getPrevSibling();
+        if (!(previous instanceof PsiWhiteSpace)) return "";
+
+        String whiteSpace = previous.getText();
+        return whiteSpace.substring(whiteSpace.lastIndexOf('\n') + 1);
+    }
+}
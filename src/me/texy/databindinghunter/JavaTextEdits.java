@@ -0,0 +1,138 @@
+package me.texy.databindinghunter;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Text edits planned for a java file (and the files using its binding fields), with the document stamps they were
+ * computed against. Applied in reverse offset order to the text of each document, which is then set at once, with
+ * one psi commit at the end.
+ */
+public final class JavaTextEdits {
+
+    // at the same offset a replaced range goes before insertions, which go last planned first,
+    // so the insertions end up in front of the replacement and in planned order
+    private static final Comparator<TextEdit> REVERSE_OFFSET_ORDER = (first, second) -> {
+        if (first.getOffset() != second.getOffset()) {
+            return Integer.compare(second.getOffset(), first.getOffset());
+        }
+        if (first.getLength() != second.getLength()) {
+            return Integer.compare(second.getLength(), first.getLength());
+        }
+        return Integer.compare(second.getSequence(), first.getSequence());
+    };
+
+    private final Map<VirtualFile, List<TextEdit>> mEdits = new LinkedHashMap<>();
+    private final Map<VirtualFile, Long> mStamps = new LinkedHashMap<>();
+    // classes of the file with binding calls, the ones the psi rewrite reports as migrated
+    private final List<String> mMigratedClasses = new ArrayList<>();
+
+    JavaTextEdits() {
+    }
+
+    void add(VirtualFile file, long stamp, TextEdit edit) {
+        List<TextEdit> edits = mEdits.get(file);
+        if (edits == null) {
+            edits = new ArrayList<>();
+            mEdits.put(file, edits);
+            mStamps.put(file, stamp);
+        }
+        edits.add(edit);
+    }
+
+    void addMigratedClass(String className) {
+        mMigratedClasses.add(className);
+    }
+
+    public List<String> getMigratedClasses() {
+        return mMigratedClasses;
+    }
+
+    public boolean isEmpty() {
+        return mEdits.isEmpty();
+    }
+
+    public int size() {
+        int size = 0;
+        for (List<TextEdit> edits : mEdits.values()) {
+            size += edits.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return whether no two edits of a file touch the same range
+     */
+    boolean sortAndCheckOverlaps() {
+        for (List<TextEdit> edits : mEdits.values()) {
+            Collections.sort(edits, REVERSE_OFFSET_ORDER);
+            for (int i = 1; i < edits.size(); i++) {
+                // edits[i] starts before edits[i - 1]
+                if (edits.get(i).getEndOffset() > edits.get(i - 1).getOffset()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The text of one file with its edits applied, for a preview that does not touch the document.
+     *
+     * @return null if the file has no edits or its document was modified since they were planned
+     */
+    public String applyTo(VirtualFile file, String text) {
+        List<TextEdit> edits = mEdits.get(file);
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        if (edits == null || document != null && document.getModificationStamp() != mStamps.get(file)) return null;
+
+        return applyEdits(text, edits);
+    }
+
+    /**
+     * Must run in a write command. Nothing is changed and false is returned if any document was modified since the
+     * edits were planned, the caller then falls back to the psi rewrite.
+     */
+    public boolean apply(Project project) {
+        PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(project);
+        List<Document> documents = new ArrayList<>();
+        for (Map.Entry<VirtualFile, Long> stamp : mStamps.entrySet()) {
+            Document document = FileDocumentManager.getInstance().getDocument(stamp.getKey());
+            if (document == null) return false;
+
+            psiDocumentManager.doPostponedOperationsAndUnblockDocument(document);
+            if (document.getModificationStamp() != stamp.getValue() || !psiDocumentManager.isCommitted(document)) return false;
+            documents.add(document);
+        }
+
+        // every new text is built before the first document changes, so an edit that fails leaves all of them as they were
+        List<String> texts = new ArrayList<>();
+        int i = 0;
+        for (List<TextEdit> edits : mEdits.values()) {
+            texts.add(applyEdits(documents.get(i++).getCharsSequence(), edits));
+        }
+        for (i = 0; i < documents.size(); i++) {
+            documents.get(i).setText(texts.get(i));
+        }
+        psiDocumentManager.commitAllDocuments();
+        return true;
+    }
+
+    private static String applyEdits(CharSequence text, List<TextEdit> edits) {
+        StringBuilder result = new StringBuilder(text);
+        for (TextEdit edit : edits) {
+            result.replace(edit.getOffset(), edit.getEndOffset(), edit.getReplacement());
+        }
+        return result.toString();
+    }
+}
@@ -18,13 +18,22 @@ public class LayoutXmlHunter {
 
     }
 
-    public boolean hunt() {
-        PsiElement layoutElement = mXmlFile.getChildren()[0].getChildren()[1];
+    /**
+     * Read-only check whether the root tag is a databinding {@code <layout>}.
+     */
+    public boolean isDataBindingLayout() {
+        PsiElement layoutElement = getLayoutElement();
         if (layoutElement == null) return false;
 
         PsiElement[] children = layoutElement.getChildren();
-        if (children.length < 2 || !children[1].getText().equals("layout")) return false;
+        return children.length >= 2 && children[1].getText().equals("layout");
+    }
 
+    public boolean hunt() {
+        if (!isDataBindingLayout()) return false;
+
+        PsiElement layoutElement = getLayoutElement();
+        PsiElement[] children = layoutElement.getChildren();
 
         for (int i = 0; i < children.length; i++) {
             PsiElement child = children[i];
@@ -40,4 +49,9 @@ public class LayoutXmlHunter {
         }
         return true;
     }
+
+    private PsiElement getLayoutElement() {
+        PsiElement[] children = mXmlFile.getChildren()[0].getChildren();
+        return children.length > 1 ? children[1] : null;
+    }
 }
@@ -1,67 +1,177 @@
 package me.texy.databindinghunter;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlDocument;
 import com.intellij.psi.xml.XmlTag;
-import kotlin.Pair;
+import me.texy.databindinghunter.index.LayoutIdData;
 import me.texy.databindinghunter.util.StringUtil;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.TreeMap;
 
-
+/**
+ * Ids of a layout for the java phase. Holds the layout file and resource name instead of the psi, so layouts scanned
+ * early do not keep their trees alive, and the ids as parallel arrays sorted by view ref name with interned tags.
+ */
 public class LayoutXmlInfo {
 
-    // <demoTextView,Pair<demo_text,TextView>>
-    private Map<String, Pair<String, String>> bindingViewIdsMap = new HashMap<>();
+    // a few dozen distinct tags are shared by thousands of views
+    private static final Interner<String> TAGS = Interners.newWeakInterner();
 
-    private PsiFile xmlFile;
+    private final VirtualFile mLayoutFile;
+    // activity_main, as in R.layout.activity_main
+    private final String mLayoutName;
+    // viewRefNames[i] -> <ids[i],tags[i]>, such as demoTextView -> <demo_text,TextView>
+    private final String[] mViewRefNames;
+    private final String[] mIds;
+    private final String[] mTags;
 
     public LayoutXmlInfo(PsiFile xmlFile) {
-        this.xmlFile = xmlFile;
-        setupIds();
+        this(xmlFile.getVirtualFile(), getLayoutName(xmlFile.getName()), collectIds(xmlFile));
+    }
+
+    /**
+     * Build from {@link me.texy.databindinghunter.index.LayoutIdIndex} data instead of walking the xml.
+     */
+    public LayoutXmlInfo(VirtualFile layoutFile, LayoutIdData idData) {
+        this(layoutFile, layoutFile.getNameWithoutExtension(), toMap(idData));
     }
 
-    private void setupIds() {
+    private LayoutXmlInfo(VirtualFile layoutFile, String layoutName, Map<String, String[]> ids) {
+        this.mLayoutFile = layoutFile;
+        this.mLayoutName = layoutName;
+        int size = ids.size();
+        this.mViewRefNames = new String[size];
+        this.mIds = new String[size];
+        this.mTags = new String[size];
+        int i = 0;
+        for (Map.Entry<String, String[]> entry : new TreeMap<>(ids).entrySet()) {
+            mViewRefNames[i] = entry.getKey();
+            mIds[i] = entry.getValue()[0];
+            mTags[i] = TAGS.intern(entry.getValue()[1]);
+            i++;
+        }
+    }
+
+    /**
+     * One binding class covers every qualifier variant of a layout (layout, layout-land, ...), so it has the ids of all
+     * of them. The file of the default variant is kept, and an id on different tags across variants becomes a View,
+     * as in the generated binding.
+     */
+    public static LayoutXmlInfo merge(LayoutXmlInfo first, LayoutXmlInfo second) {
+        // "layout" sorts before "layout-land", so the result does not depend on scan order
+        boolean firstIsBase = getVariantDirName(first).compareTo(getVariantDirName(second)) <= 0;
+        LayoutXmlInfo base = firstIsBase ? first : second;
+        LayoutXmlInfo variant = firstIsBase ? second : first;
+
+        Map<String, String[]> merged = base.toMap();
+        for (int i = 0; i < variant.mViewRefNames.length; i++) {
+            String[] existing = merged.get(variant.mViewRefNames[i]);
+            if (existing == null) {
+                merged.put(variant.mViewRefNames[i], new String[]{variant.mIds[i], variant.mTags[i]});
+            } else if (!existing[1].equals(variant.mTags[i])) {
+                existing[1] = "View";
+            }
+        }
+        return new LayoutXmlInfo(base.mLayoutFile, base.mLayoutName, merged);
+    }
+
+    private static String getVariantDirName(LayoutXmlInfo info) {
+        return info.mLayoutFile == null || info.mLayoutFile.getParent() == null ? "" : info.mLayoutFile.getParent().getName();
+    }
+
+    /**
+     * @return view ref name -> {id, tag}, such as demoTextView -> {demo_text, TextView}
+     */
+    public static Map<String, String[]> collectIds(PsiFile xmlFile) {
+        Map<String, String[]> ids = new TreeMap<>();
         for (PsiElement element : xmlFile.getChildren()) {
             if (element instanceof XmlDocument) {
                 for (PsiElement tag : element.getChildren()) {
-                    getIdsFromAttrs(tag);
+                    getIdsFromAttrs(tag, ids);
                 }
             }
         }
+        return ids;
     }
 
-    private void getIdsFromAttrs(PsiElement tag) {
+    private static void getIdsFromAttrs(PsiElement tag, Map<String, String[]> ids) {
         if (tag instanceof XmlTag) {
             XmlAttribute id = ((XmlTag) tag).getAttribute("android:id", null);
             if (id != null && id.getValue() != null) {
                 String idName = id.getValue().substring(id.getValue().indexOf("id/") + 3);
-                bindingViewIdsMap.put(StringUtil.formatUnderlineToLowerCamel(idName), new Pair<>(idName, ((XmlTag) tag).getName()));
+                ids.put(StringUtil.formatUnderlineToLowerCamel(idName), new String[]{idName, ((XmlTag) tag).getName()});
             }
             for (PsiElement child : tag.getChildren()) {
-                getIdsFromAttrs(child);
+                getIdsFromAttrs(child, ids);
             }
         }
     }
 
-    public PsiFile getXmlFile() {
-        return xmlFile;
+    private static Map<String, String[]> toMap(LayoutIdData idData) {
+        Map<String, String[]> ids = new TreeMap<>();
+        for (int i = 0; i < idData.size(); i++) {
+            ids.put(idData.getViewRefName(i), new String[]{idData.getId(i), idData.getTag(i)});
+        }
+        return ids;
     }
 
-    public String getIdByViewRefName(String viewRefName) {
-        if (!bindingViewIdsMap.containsKey(viewRefName)) {
-            return null;
+    private Map<String, String[]> toMap() {
+        Map<String, String[]> ids = new TreeMap<>();
+        for (int i = 0; i < mViewRefNames.length; i++) {
+            ids.put(mViewRefNames[i], new String[]{mIds[i], mTags[i]});
         }
-        return bindingViewIdsMap.get(viewRefName).getFirst();
+        return ids;
+    }
+
+    private static String getLayoutName(String fileName) {
+        int extensionIndex = fileName.lastIndexOf('.');
+        return extensionIndex == -1 ? fileName : fileName.substring(0, extensionIndex);
+    }
+
+    /**
+     * @return the layout file, null for layouts that are not on disk
+     */
+    public VirtualFile getLayoutFile() {
+        return mLayoutFile;
+    }
+
+    public String getLayoutName() {
+        return mLayoutName;
+    }
+
+    public int size() {
+        return mViewRefNames.length;
+    }
+
+    /**
+     * View ref names sort in ascending order, such as for generating one field per view.
+     */
+    public String getViewRefName(int index) {
+        return mViewRefNames[index];
+    }
+
+    public String getId(int index) {
+        return mIds[index];
+    }
+
+    public String getTag(int index) {
+        return mTags[index];
+    }
+
+    public String getIdByViewRefName(String viewRefName) {
+        int index = Arrays.binarySearch(mViewRefNames, viewRefName);
+        return index < 0 ? null : mIds[index];
     }
 
     public String getViewTypeByViewRefName(String viewRefName) {
-        if (!bindingViewIdsMap.containsKey(viewRefName)) {
-            return null;
-        }
-        return bindingViewIdsMap.get(viewRefName).getSecond();
+        int index = Arrays.binarySearch(mViewRefNames, viewRefName);
+        return index < 0 ? null : mTags[index];
     }
 }
@@ -0,0 +1,262 @@
+package me.texy.databindinghunter;
+
+import com.intellij.openapi.vfs.VirtualFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Unwraps a databinding {@code <layout>} in one StAX pass over the layout text, without building PSI:
+ * {@code <data>} is dropped and the namespaces and attributes of {@code <layout>} move to the new root tag.
+ * Everything else is copied from the original text as it is, the spacing between attributes included; StAX only
+ * drives a small scanner that keeps track of where each tag starts and ends.
+ * <p>
+ * Files with a doctype or entity references, or with text outside the new root, can not be written back faithfully,
+ * {@link #rewrite} returns null for them and the caller falls back to {@link LayoutXmlHunter}.
+ */
+public class LayoutXmlStreamRewriter {
+
+    private static final String TAG_LAYOUT = "layout";
+    private static final String TAG_DATA = "data";
+    private static final String XMLNS = "xmlns";
+    // leading whitespace, name and quoted value of one attribute in a start tag
+    private static final Pattern ATTRIBUTE = Pattern.compile("(\\s+)([^\\s=/>]+)\\s*=\\s*(\"[^\"]*\"|'[^']*')");
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final String mText;
+    private final StringBuilder mOut = new StringBuilder();
+    // end of the last tag the scanner went past
+    private int mPos;
+
+    private LayoutXmlStreamRewriter(String text) {
+        this.mText = text;
+    }
+
+    public static boolean canRewrite(VirtualFile layoutFile) {
+        return layoutFile.isValid() && layoutFile.isWritable();
+    }
+
+    /**
+     * @return the unwrapped layout, or null if the text is not a databinding layout or can not be streamed
+     */
+    public static Result rewrite(String text) {
+        try {
+            return new LayoutXmlStreamRewriter(text).doRewrite();
+        } catch (XMLStreamException | IllegalArgumentException e) {
+            // malformed xml
+            return null;
+        }
+    }
+
+    private Result doRewrite() throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(mText));
+        try {
+            // depth 1 is inside <layout>, where only the new root tag and comments are kept
+            int depth = 0;
+            int skipDepth = 0;
+            boolean rootWritten = false;
+            String layoutTag = null;
+            int rootContentStart = 0;
+            // whether each open element was written as an empty element tag, which has no end tag to scan
+            Deque<Boolean> emptyTags = new ArrayDeque<>();
+            while (reader.hasNext()) {
+                int event = reader.next();
+                switch (event) {
+                    case XMLStreamConstants.DTD:
+                    case XMLStreamConstants.ENTITY_REFERENCE:
+                        return null;
+                    case XMLStreamConstants.START_ELEMENT:
+                        int tagStart = nextTag(mPos);
+                        mPos = tagEnd(tagStart);
+                        emptyTags.push(mText.charAt(mPos - 2) == '/');
+                        if (skipDepth > 0) {
+                            skipDepth++;
+                        } else if (depth == 0) {
+                            if (!TAG_LAYOUT.equals(getQualifiedName(reader))) return null;
+                            // the xml declaration and whatever precedes <layout>
+                            mOut.append(mText, 0, tagStart);
+                            layoutTag = mText.substring(tagStart, mPos);
+                        } else if (depth == 1 && TAG_DATA.equals(reader.getLocalName())) {
+                            skipDepth = 1;
+                        } else if (depth == 1) {
+                            // a second root would not be well-formed once <layout> is gone
+                            if (rootWritten) return null;
+                            rootWritten = true;
+                            newLine();
+                            mOut.append(mergeRootTag(mText.substring(tagStart, mPos), getQualifiedName(reader), layoutTag));
+                            rootContentStart = mPos;
+                        }
+                        depth++;
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        depth--;
+                        if (!emptyTags.pop()) {
+                            mPos = tagEnd(nextTag(mPos));
+                        }
+                        if (skipDepth > 0) {
+                            skipDepth--;
+                        } else if (depth == 1) {
+                            // the content and end tag of the new root, as they are
+                            mOut.append(mText, rootContentStart, mPos);
+                        } else if (depth == 0) {
+                            if (!rootWritten) return null;
+                            // whatever follows </layout>
+                            mOut.append(mText, mPos, mText.length());
+                            return new Result(mOut.toString());
+                        }
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        if (depth == 1 && skipDepth == 0) {
+                            newLine();
+                            mOut.append("<!--").append(reader.getText()).append("-->");
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        // whitespace around <data> and the new root would leave blank lines behind, anything else
+                        // there has no place once <layout> is gone
+                        if (depth == 1 && skipDepth == 0 && !reader.isWhiteSpace()) return null;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return null;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * The root tag as written, with the namespaces and attributes of {@code <layout>} in front of its own, separated
+     * like its own attributes are. Namespaces the root declares itself are kept, attributes of {@code <layout>} win.
+     */
+    private static String mergeRootTag(String rootTag, String rootName, String layoutTag) {
+        // name -> offsets of the attribute in the root tag, its leading whitespace included
+        Map<String, int[]> ownAttributes = new LinkedHashMap<>();
+        String separator = " ";
+        Matcher rootMatcher = ATTRIBUTE.matcher(rootTag);
+        rootMatcher.region(1 + rootName.length(), rootTag.length());
+        while (rootMatcher.find()) {
+            if (ownAttributes.isEmpty()) {
+                separator = rootMatcher.group(1);
+            }
+            ownAttributes.put(rootMatcher.group(2), new int[]{rootMatcher.start(), rootMatcher.end()});
+        }
+
+        StringBuilder moved = new StringBuilder();
+        TreeMap<Integer, Integer> overridden = new TreeMap<>();
+        Matcher layoutMatcher = ATTRIBUTE.matcher(layoutTag);
+        layoutMatcher.region(1 + TAG_LAYOUT.length(), layoutTag.length());
+        while (layoutMatcher.find()) {
+            String name = layoutMatcher.group(2);
+            int[] ownAttribute = ownAttributes.get(name);
+            if (ownAttribute != null) {
+                if (name.equals(XMLNS) || name.startsWith(XMLNS + ":")) continue;
+                overridden.put(ownAttribute[0], ownAttribute[1]);
+            }
+            moved.append(separator).append(layoutTag, layoutMatcher.start(2), layoutMatcher.end());
+        }
+
+        StringBuilder merged = new StringBuilder("<").append(rootName).append(moved);
+        int pos = 1 + rootName.length();
+        for (Map.Entry<Integer, Integer> range : overridden.entrySet()) {
+            merged.append(rootTag, pos, range.getKey());
+            pos = range.getValue();
+        }
+        return merged.append(rootTag, pos, rootTag.length()).toString();
+    }
+
+    /**
+     * @return the start of the next start or end tag, past comments, cdata sections and processing instructions
+     */
+    private int nextTag(int from) {
+        int i = from;
+        while (true) {
+            i = mText.indexOf('<', i);
+            if (i < 0) {
+                throw new IllegalArgumentException("tag expected after offset " + from);
+            }
+            if (mText.startsWith("<!--", i)) {
+                i = skipPast("-->", i);
+            } else if (mText.startsWith("<![CDATA[", i)) {
+                i = skipPast("]]>", i);
+            } else if (mText.startsWith("<?", i)) {
+                i = skipPast("?>", i);
+            } else {
+                return i;
+            }
+        }
+    }
+
+    private int skipPast(String end, int from) {
+        int i = mText.indexOf(end, from);
+        if (i < 0) {
+            throw new IllegalArgumentException(end + " expected after offset " + from);
+        }
+        return i + end.length();
+    }
+
+    /**
+     * @return the offset after the {@code >} closing the tag, which may also appear in quoted attribute values
+     */
+    private int tagEnd(int tagStart) {
+        char quote = 0;
+        for (int i = tagStart + 1; i < mText.length(); i++) {
+            char c = mText.charAt(i);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+        }
+        throw new IllegalArgumentException("unterminated tag at offset " + tagStart);
+    }
+
+    private void newLine() {
+        if (mOut.length() > 0 && mOut.charAt(mOut.length() - 1) != '\n') {
+            mOut.append("\n");
+        }
+    }
+
+    private static String getQualifiedName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factory;
+    }
+
+    public static class Result {
+        private final String mText;
+
+        private Result(String text) {
+            this.mText = text;
+        }
+
+        public String getText() {
+            return mText;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package me.texy.databindinghunter;
+
+/**
+ * Replace {@code length} chars at {@code offset} with {@code replacement}, an insertion when length is 0.
+ */
+public final class TextEdit {
+
+    private final int mOffset;
+    private final int mLength;
+    private final String mReplacement;
+    // insertions at the same offset keep the order they were planned in
+    private final int mSequence;
+
+    TextEdit(int offset, int length, String replacement, int sequence) {
+        this.mOffset = offset;
+        this.mLength = length;
+        this.mReplacement = replacement;
+        this.mSequence = sequence;
+    }
+
+    public int getOffset() {
+        return mOffset;
+    }
+
+    public int getLength() {
+        return mLength;
+    }
+
+    public int getEndOffset() {
+        return mOffset + mLength;
+    }
+
+    public String getReplacement() {
+        return mReplacement;
+    }
+
+    int getSequence() {
+        return mSequence;
+    }
+}
@@ -0,0 +1,45 @@
+package me.texy.databindinghunter.action;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import me.texy.databindinghunter.preview.FileChange;
+import me.texy.databindinghunter.preview.MigrationPreview;
+import me.texy.databindinghunter.report.MigrationReport;
+import me.texy.databindinghunter.util.MessageUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+public class PreviewDatabindingAction extends AnAction {
+
+    @Override
+    public void actionPerformed(AnActionEvent anActionEvent) {
+        Project project = anActionEvent.getProject();
+        if (project == null) {
+            return;
+        }
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Previewing databinding removal...", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator progressIndicator) {
+                MigrationReport report = new MigrationReport(project.getName());
+                try {
+                    List<FileChange> changes = new MigrationPreview(project, report).compute(progressIndicator);
+                    if (changes.isEmpty()) {
+                        MessageUtil.showInfoMsg(project, "Nothing to remove, no databinding usage found.");
+                    } else {
+                        MigrationPreview.show(project, changes);
+                    }
+                } catch (ProcessCanceledException e) {
+                    // nothing was written
+                } catch (Exception e) {
+                    MessageUtil.showErrorMsg(project, "preview error", e);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package me.texy.databindinghunter.engine;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.Computable;
+import me.texy.databindinghunter.report.MemoryProbe;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the heap left after collections between units of work of a memory-bounded run. While it is below the threshold, apply batches are
+ * halved down to one file and java files are analyzed one at a time; batches grow back once the heap recovers.
+ */
+final class HeapThrottle {
+
+    private static final Logger LOG = Logger.getInstance(HeapThrottle.class);
+
+    private final double mMinFreeFraction;
+    private final Semaphore mLowHeapPermit = new Semaphore(1);
+    private volatile boolean mHeapLow;
+
+    HeapThrottle(int minFreeHeapPercent) {
+        this.mMinFreeFraction = minFreeHeapPercent / 100.0;
+    }
+
+    boolean isHeapLow() {
+        boolean heapLow = MemoryProbe.freeHeapFraction() < mMinFreeFraction;
+        if (heapLow != mHeapLow) {
+            mHeapLow = heapLow;
+            LOG.info(heapLow ? "free heap below " + Math.round(mMinFreeFraction * 100) + "%, throttling" : "free heap recovered");
+        }
+        return heapLow;
+    }
+
+    /**
+     * @return half the last batch size while the heap is low, otherwise twice of it up to the configured size
+     */
+    int nextBatchSize(int batchSize, int maxBatchSize) {
+        return isHeapLow() ? Math.max(1, batchSize / 2) : Math.min(maxBatchSize, batchSize * 2);
+    }
+
+    /**
+     * Runs the work right away while the heap is fine, otherwise one caller at a time.
+     */
+    <T> T compute(ProgressIndicator progressIndicator, Computable<T> work) {
+        if (!isHeapLow()) return work.compute();
+
+        try {
+            while (!mLowHeapPermit.tryAcquire(50, TimeUnit.MILLISECONDS)) {
+                progressIndicator.checkCanceled();
+            }
+        } catch (InterruptedException e) {
+            throw new ProcessCanceledException(e);
+        }
+        try {
+            return work.compute();
+        } finally {
+            mLowHeapPermit.release();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package me.texy.databindinghunter.engine;
+
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.SmartPsiElementPointer;
+import me.texy.databindinghunter.JavaTextEdits;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Result of analysing one java file: the binding imports its classes have to be migrated from,
+ * and optionally the whole rewrite as text edits.
+ */
+public final class JavaRewritePlan {
+
+    private final SmartPsiElementPointer<PsiJavaFile> mJavaFile;
+    private final String mPath;
+    private final String mFileName;
+    private final Set<String> mDataBindingImports;
+    private final JavaTextEdits mTextEdits;
+
+    public JavaRewritePlan(SmartPsiElementPointer<PsiJavaFile> javaFile, String path, String fileName, Set<String> dataBindingImports,
+                           JavaTextEdits textEdits) {
+        this.mJavaFile = javaFile;
+        this.mPath = path;
+        this.mFileName = fileName;
+        this.mDataBindingImports = Collections.unmodifiableSet(new HashSet<>(dataBindingImports));
+        this.mTextEdits = textEdits;
+    }
+
+    public PsiJavaFile getJavaFile() {
+        return mJavaFile.getElement();
+    }
+
+    /**
+     * For a memory-bounded run to drop the pointer once the file is applied.
+     */
+    SmartPsiElementPointer<PsiJavaFile> getPointer() {
+        return mJavaFile;
+    }
+
+    public String getPath() {
+        return mPath;
+    }
+
+    public String getFileName() {
+        return mFileName;
+    }
+
+    public Set<String> getDataBindingImports() {
+        return mDataBindingImports;
+    }
+
+    /**
+     * Planned document edits, null when the text edit rewrite is off or could not plan this file.
+     */
+    public JavaTextEdits getTextEdits() {
+        return mTextEdits;
+    }
+
+    /**
+     * Which backend rewrites the file, for the migration and its preview alike: the planned text edits if there are
+     * some, they only know the findViewById rewrite, so not when one of the file's bindings gets a view holder.
+     */
+    public boolean usesTextEdits(Collection<String> viewHolderBindings) {
+        return mTextEdits != null && Collections.disjoint(mDataBindingImports, viewHolderBindings);
+    }
+}
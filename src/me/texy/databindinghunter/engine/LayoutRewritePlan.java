@@ -0,0 +1,47 @@
+package me.texy.databindinghunter.engine;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SmartPsiElementPointer;
+
+/**
+ * Result of analysing one layout xml: whether its {@code <layout>} root has to be unwrapped.
+ */
+public final class LayoutRewritePlan {
+
+    private final SmartPsiElementPointer<PsiFile> mXmlFile;
+    private final String mPath;
+    private final String mBindingName;
+
+    public LayoutRewritePlan(SmartPsiElementPointer<PsiFile> xmlFile, String path, String bindingName) {
+        this.mXmlFile = xmlFile;
+        this.mPath = path;
+        this.mBindingName = bindingName;
+    }
+
+    public PsiFile getXmlFile() {
+        return mXmlFile.getElement();
+    }
+
+    /**
+     * Available without restoring the psi, for the streaming rewrite.
+     */
+    public VirtualFile getVirtualFile() {
+        return mXmlFile.getVirtualFile();
+    }
+
+    /**
+     * For a memory-bounded run to drop the pointer once the file is applied.
+     */
+    SmartPsiElementPointer<PsiFile> getPointer() {
+        return mXmlFile;
+    }
+
+    public String getPath() {
+        return mPath;
+    }
+
+    public String getBindingName() {
+        return mBindingName;
+    }
+}
@@ -0,0 +1,157 @@
+package me.texy.databindinghunter.engine;
+
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import me.texy.databindinghunter.BindingLayoutTable;
+import me.texy.databindinghunter.LayoutXmlHunter;
+import me.texy.databindinghunter.LayoutXmlInfo;
+import me.texy.databindinghunter.index.LayoutIdData;
+import me.texy.databindinghunter.index.LayoutIdIndex;
+import me.texy.databindinghunter.report.MigrationReport;
+import me.texy.databindinghunter.util.ReadActionUtil;
+import me.texy.databindinghunter.util.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Extracts ids of every layout xml of a module, qualifier variants included, on a bounded pool, each file in its own
+ * read action. Layouts are keyed by their qualified binding class.
+ */
+public class LayoutScanner {
+
+    private static final Logger LOG = Logger.getInstance(LayoutScanner.class);
+
+    private static final int MAX_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private final Project mProject;
+    private final MigrationReport mReport;
+    private final MigrationJournal mJournal;
+    // null for a whole project run
+    private final MigrationScope mScope;
+
+    public LayoutScanner(Project project, MigrationReport report, MigrationJournal journal) {
+        this(project, report, journal, null);
+    }
+
+    public LayoutScanner(Project project, MigrationReport report, MigrationJournal journal, MigrationScope scope) {
+        this.mProject = project;
+        this.mReport = report;
+        this.mJournal = journal;
+        this.mScope = scope;
+    }
+
+    /**
+     * Scan every layout of the source set.
+     */
+    public BindingLayoutTable scan(@NotNull ProgressIndicator progressIndicator, ModuleSourceSet sourceSet, List<LayoutRewritePlan> layoutPlans) {
+        Collection<VirtualFile> xmlFiles = ReadActionUtil.computeCancellable(progressIndicator, () ->
+                FileBasedIndex.getInstance().getContainingFiles(FileTypeIndex.NAME, XmlFileType.INSTANCE, sourceSet.getScope()));
+        List<VirtualFile> layoutFiles = new ArrayList<>();
+        for (VirtualFile xml : xmlFiles) {
+            if (LayoutIdIndex.isLayoutDir(xml.getParent())) {
+                layoutFiles.add(xml);
+            }
+        }
+        return scan(progressIndicator, sourceSet, layoutFiles, layoutPlans);
+    }
+
+    /**
+     * Scan the given layouts of the source set only.
+     */
+    public BindingLayoutTable scan(@NotNull ProgressIndicator progressIndicator, ModuleSourceSet sourceSet,
+                                   List<VirtualFile> layoutFiles, List<LayoutRewritePlan> layoutPlans) {
+        BindingLayoutTable.Builder tableBuilder = new BindingLayoutTable.Builder();
+        Map<VirtualFile, LayoutRewritePlan> plansByFile = new ConcurrentHashMap<>();
+        AtomicInteger scanned = new AtomicInteger();
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("DataBindingHunter layout scanner", MAX_THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (VirtualFile xml : layoutFiles) {
+                futures.add(executor.submit(() -> {
+                    long start = System.currentTimeMillis();
+                    scanLayout(progressIndicator, xml, sourceSet.getAppPackage(), tableBuilder, plansByFile);
+                    mReport.addFileDuration(xml.getPath(), MigrationReport.PHASE_LAYOUT_SCAN, System.currentTimeMillis() - start);
+                    progressIndicator.setText2(scanned.incrementAndGet() + "/" + layoutFiles.size() + " " + xml.getName());
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof ProcessCanceledException) {
+                        throw (ProcessCanceledException) e.getCause();
+                    }
+                    Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    LOG.warn("Exception threw when handle " + layoutFiles.get(i).getName(), cause);
+                    mReport.addError(layoutFiles.get(i).getName(), cause);
+                } catch (InterruptedException e) {
+                    throw new ProcessCanceledException(e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // keep plans in index order so the write phase is deterministic
+        for (VirtualFile xml : layoutFiles) {
+            LayoutRewritePlan layoutPlan = plansByFile.get(xml);
+            if (layoutPlan != null) {
+                layoutPlans.add(layoutPlan);
+            }
+        }
+        return tableBuilder.build();
+    }
+
+    private void scanLayout(@NotNull ProgressIndicator progressIndicator, VirtualFile xml, String appPackage,
+                            BindingLayoutTable.Builder tableBuilder, Map<VirtualFile, LayoutRewritePlan> plansByFile) {
+        ReadActionUtil.computeCancellable(progressIndicator, () -> {
+            PsiFile xmlFile = PsiManager.getInstance(mProject).findFile(xml);
+            if (xmlFile == null) return null;
+
+            String bindingName;
+            boolean dataBindingLayout;
+            LayoutIdData idData = LayoutIdIndex.getLayoutIdData(mProject, xml);
+            if (idData != null) {
+                bindingName = StringUtil.getQualifiedBindingName(idData.getBindingClassName(), appPackage);
+                dataBindingLayout = idData.isDataBindingLayout();
+                tableBuilder.put(bindingName, new LayoutXmlInfo(xml, idData));
+            } else {
+                XmlTag rootTag = xmlFile instanceof XmlFile ? ((XmlFile) xmlFile).getRootTag() : null;
+                String bindingClassName = rootTag != null
+                        ? LayoutIdIndex.getBindingClassName(rootTag, xml.getName()) : StringUtil.getBindingNameFromLayout(xml.getName());
+                bindingName = StringUtil.getQualifiedBindingName(bindingClassName, appPackage);
+                dataBindingLayout = new LayoutXmlHunter(xmlFile).isDataBindingLayout();
+                tableBuilder.put(bindingName, new LayoutXmlInfo(xmlFile));
+            }
+            // in a scoped run, java files outside the selection may still need the binding
+            boolean unwrap = dataBindingLayout && !mJournal.isCompleted(xml)
+                    && (mScope == null || mScope.isUsedOnlyInside(mProject, bindingName));
+            if (unwrap) {
+                plansByFile.put(xml, new LayoutRewritePlan(
+                        SmartPointerManager.getInstance(mProject).createSmartPsiElementPointer(xmlFile), xml.getPath(), bindingName));
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,638 @@
+package me.texy.databindinghunter.engine;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiImportList;
+import com.intellij.psi.PsiImportStatement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.Function;
+import com.intellij.util.containers.ContainerUtil;
+import me.texy.databindinghunter.BindingClassResolver;
+import me.texy.databindinghunter.BindingLayoutTable;
+import me.texy.databindinghunter.FileEditBatch;
+import me.texy.databindinghunter.JavaBindingHunter;
+import me.texy.databindinghunter.JavaTextEditPlanner;
+import me.texy.databindinghunter.JavaTextEdits;
+import me.texy.databindinghunter.LayoutXmlHunter;
+import me.texy.databindinghunter.LayoutXmlInfo;
+import me.texy.databindinghunter.LayoutXmlStreamRewriter;
+import me.texy.databindinghunter.index.DataBindingUsageIndex;
+import me.texy.databindinghunter.index.LayoutIdIndex;
+import me.texy.databindinghunter.report.MigrationReport;
+import me.texy.databindinghunter.settings.MigrationSettings;
+import me.texy.databindinghunter.util.ReadActionUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two phases: {@link #analyze} only takes short cancellable read actions and builds a {@link MigrationPlan},
+ * {@link #apply} holds the write lock just for the edits, one command per batch.
+ */
+public class MigrationEngine {
+
+    private static final Logger LOG = Logger.getInstance(MigrationEngine.class);
+
+    private static final String COMMAND_NAME = "Remove DataBinding";
+
+    // each module scan runs its own layout pool, keep the number of modules in flight small
+    private static final int MAX_MODULE_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    private final Project mProject;
+    private final MigrationReport mReport;
+    private final MigrationJournal mJournal;
+    private final BindingClassResolver mBindingClassResolver;
+    private final int mChunkSize;
+    private final boolean mStreamingLayoutRewrite;
+    private final boolean mTextEditJavaRewrite;
+    private final int mJavaAnalysisThreads;
+    private final boolean mViewHolderOutput;
+    // qualified binding -> qualified view holder generated by this run, null where generation failed
+    private final Map<String, String> mViewHolders = new HashMap<>();
+    // null unless the run is memory-bounded
+    private final HeapThrottle mHeapThrottle;
+    // null for a whole project run
+    private final MigrationScope mScope;
+    // binding imports of the selected java files, set by a scoped analysis
+    private Set<String> mSelectedBindingImports;
+    private int mAppliedUnits;
+    private int mTotalUnits;
+
+    public MigrationEngine(Project project, MigrationReport report) {
+        this(project, report, null);
+    }
+
+    /**
+     * @param scope the selection to migrate, null for the whole project
+     */
+    public MigrationEngine(Project project, MigrationReport report, MigrationScope scope) {
+        this.mProject = project;
+        this.mReport = report;
+        this.mJournal = MigrationJournal.open(project);
+        this.mBindingClassResolver = new BindingClassResolver(project);
+        this.mChunkSize = MigrationSettings.getInstance().getChunkSize();
+        this.mStreamingLayoutRewrite = MigrationSettings.getInstance().isStreamingLayoutRewrite();
+        this.mTextEditJavaRewrite = MigrationSettings.getInstance().isTextEditJavaRewrite();
+        this.mJavaAnalysisThreads = MigrationSettings.getInstance().getJavaAnalysisThreads();
+        this.mViewHolderOutput = MigrationSettings.getInstance().isViewHolderOutput();
+        this.mHeapThrottle = MigrationSettings.getInstance().isMemoryBounded()
+                ? new HeapThrottle(MigrationSettings.getInstance().getMinFreeHeapPercent()) : null;
+        this.mScope = scope;
+    }
+
+    /**
+     * Analyze and apply every module of the project, or the selection of a scoped run. Must not be called from the
+     * dispatch thread.
+     * Files recorded in the journal by an interrupted run are skipped, their entries are cleared once everything is
+     * applied, only those of the selection in a scoped run.
+     */
+    public void run(@NotNull ProgressIndicator progressIndicator) {
+        long start = System.currentTimeMillis();
+        if (mJournal.size() > 0) {
+            LOG.info("resuming migration, " + mJournal.size() + " files already done");
+        }
+        progressIndicator.setIndeterminate(false);
+        List<MigrationPlan> plans = analyze(progressIndicator);
+        progressIndicator.setFraction(0.5);
+        for (MigrationPlan plan : plans) {
+            mTotalUnits += plan.getLayoutPlans().size() + plan.getJavaPlans().size();
+        }
+        // dependencies first, same order as the analysis
+        for (MigrationPlan plan : plans) {
+            apply(progressIndicator, plan);
+        }
+        progressIndicator.checkCanceled();
+        if (mScope == null) {
+            mJournal.clear();
+        } else {
+            mJournal.clear(mScope.getScope());
+        }
+        mReport.setTotalMillis(System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Read-only, plans for every module of the project, or for the modules of the selection in a scoped run.
+     */
+    public List<MigrationPlan> analyze(@NotNull ProgressIndicator progressIndicator) {
+        DumbService.getInstance(mProject).waitForSmartMode();
+        List<ModuleSourceSet> sourceSets = ReadActionUtil.computeCancellable(progressIndicator, () -> ModuleSourceSet.discover(mProject));
+        if (mScope != null) {
+            sourceSets = selectSourceSets(progressIndicator, sourceSets);
+        }
+        return analyze(progressIndicator, sourceSets);
+    }
+
+    /**
+     * Source sets with selected java files and those they depend on. The binding imports of the selected files are kept,
+     * so only the layouts reachable from the selection are scanned.
+     */
+    private List<ModuleSourceSet> selectSourceSets(@NotNull ProgressIndicator progressIndicator, List<ModuleSourceSet> sourceSets) {
+        Set<String> bindingImports = new HashSet<>();
+        Set<Module> selectedModules = new HashSet<>();
+        for (ModuleSourceSet sourceSet : sourceSets) {
+            Set<String> imports = ReadActionUtil.computeCancellable(progressIndicator, () -> findBindingImports(getJavaScope(sourceSet)));
+            if (imports.isEmpty()) continue;
+
+            bindingImports.addAll(imports);
+            selectedModules.add(sourceSet.getModule());
+            selectedModules.addAll(sourceSet.getDependencies());
+        }
+        mSelectedBindingImports = bindingImports;
+        LOG.info(mScope.getDescription() + ": " + bindingImports.size() + " binding imports in " + selectedModules.size() + " modules");
+        return ContainerUtil.filter(sourceSets, sourceSet -> selectedModules.contains(sourceSet.getModule()));
+    }
+
+    private Set<String> findBindingImports(GlobalSearchScope scope) {
+        Set<String> bindingImports = new HashSet<>();
+        for (VirtualFile javaFile : DataBindingUsageIndex.getDataBindingFiles(scope)) {
+            PsiFile psiFile = PsiManager.getInstance(mProject).findFile(javaFile);
+            PsiImportList importList = psiFile instanceof PsiJavaFile ? ((PsiJavaFile) psiFile).getImportList() : null;
+            if (importList == null) continue;
+
+            for (PsiImportStatement importStatement : importList.getImportStatements()) {
+                String importClass = importStatement.getQualifiedName();
+                if (importClass != null && DataBindingUsageIndex.isDataBindingImport(importClass)) {
+                    bindingImports.add(importClass);
+                }
+            }
+        }
+        return bindingImports;
+    }
+
+    private GlobalSearchScope getJavaScope(ModuleSourceSet sourceSet) {
+        return mScope == null ? sourceSet.getScope() : sourceSet.getScope().intersectWith(mScope.getScope());
+    }
+
+    /**
+     * Modules are analyzed concurrently. The layouts of every module are scanned once, and a module's java files
+     * are analyzed as soon as its own layouts and those of the modules it depends on are known.
+     *
+     * @param sourceSets sorted so that dependencies come before dependents
+     */
+    public List<MigrationPlan> analyze(@NotNull ProgressIndicator progressIndicator, List<ModuleSourceSet> sourceSets) {
+        Map<Module, CompletableFuture<BindingLayoutTable>> layoutTables = new HashMap<>();
+        Map<Module, List<LayoutRewritePlan>> layoutPlans = new HashMap<>();
+        List<CompletableFuture<MigrationPlan>> plans = new ArrayList<>();
+        AtomicInteger analyzed = new AtomicInteger();
+        // the module phases overlap, allocations and peak heap are measured once around all of them
+        MigrationReport.PhaseTimer timer = mReport.startPhase(MigrationReport.PHASE_ANALYSIS);
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("DataBindingHunter module analysis", MAX_MODULE_THREADS);
+        // shared by the modules, so their java analysis together never takes more than the configured threads
+        ExecutorService javaExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("DataBindingHunter java analysis", mJavaAnalysisThreads);
+        try {
+            for (ModuleSourceSet sourceSet : sourceSets) {
+                List<LayoutRewritePlan> modulePlans = new ArrayList<>();
+                layoutPlans.put(sourceSet.getModule(), modulePlans);
+                layoutTables.put(sourceSet.getModule(), CompletableFuture.supplyAsync(
+                        () -> scanLayouts(progressIndicator, sourceSet, modulePlans), executor));
+            }
+            for (ModuleSourceSet sourceSet : sourceSets) {
+                // dependencies first so the module's own layouts win on a name clash
+                List<CompletableFuture<BindingLayoutTable>> visibleTables = new ArrayList<>();
+                for (Module dependency : sourceSet.getDependencies()) {
+                    CompletableFuture<BindingLayoutTable> table = layoutTables.get(dependency);
+                    if (table != null) {
+                        visibleTables.add(table);
+                    }
+                }
+                visibleTables.add(layoutTables.get(sourceSet.getModule()));
+                List<LayoutRewritePlan> modulePlans = layoutPlans.get(sourceSet.getModule());
+                plans.add(CompletableFuture.allOf(visibleTables.toArray(new CompletableFuture[0])).thenApplyAsync(ignored -> {
+                    BindingLayoutTable.Builder tableBuilder = new BindingLayoutTable.Builder();
+                    for (CompletableFuture<BindingLayoutTable> table : visibleTables) {
+                        tableBuilder.putAll(table.join());
+                    }
+                    MigrationPlan plan = planModule(progressIndicator, sourceSet, tableBuilder.build(), modulePlans, javaExecutor);
+                    progressIndicator.setFraction(0.5 * analyzed.incrementAndGet() / sourceSets.size());
+                    return plan;
+                }, executor));
+            }
+
+            List<MigrationPlan> result = new ArrayList<>();
+            int files = 0;
+            for (CompletableFuture<MigrationPlan> plan : plans) {
+                MigrationPlan modulePlan = plan.get();
+                result.add(modulePlan);
+                files += modulePlan.getLayoutPlans().size() + modulePlan.getJavaPlans().size();
+            }
+            timer.stop(files);
+            return result;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof ProcessCanceledException) {
+                throw (ProcessCanceledException) cause;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            throw new ProcessCanceledException(e);
+        } finally {
+            for (CompletableFuture<MigrationPlan> plan : plans) {
+                plan.cancel(false);
+            }
+            executor.shutdownNow();
+            javaExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Read-only, the layouts one module sees: those of the modules it depends on and its own, which win on a clash.
+     * For migrating single files without analysing the project.
+     */
+    public BindingLayoutTable scanVisibleLayouts(@NotNull ProgressIndicator progressIndicator, Module module) {
+        DumbService.getInstance(mProject).waitForSmartMode();
+        List<ModuleSourceSet> sourceSets = ReadActionUtil.computeCancellable(progressIndicator, () -> ModuleSourceSet.discover(mProject));
+        Map<Module, ModuleSourceSet> sourceSetsByModule = new HashMap<>();
+        for (ModuleSourceSet sourceSet : sourceSets) {
+            sourceSetsByModule.put(sourceSet.getModule(), sourceSet);
+        }
+        BindingLayoutTable.Builder tableBuilder = new BindingLayoutTable.Builder();
+        ModuleSourceSet moduleSourceSet = sourceSetsByModule.get(module);
+        if (moduleSourceSet == null) return tableBuilder.build();
+
+        for (Module dependency : moduleSourceSet.getDependencies()) {
+            ModuleSourceSet sourceSet = sourceSetsByModule.get(dependency);
+            if (sourceSet != null) {
+                tableBuilder.putAll(scanLayouts(progressIndicator, sourceSet, new ArrayList<>()));
+            }
+        }
+        tableBuilder.putAll(scanLayouts(progressIndicator, moduleSourceSet, new ArrayList<>()));
+        return tableBuilder.build();
+    }
+
+    private BindingLayoutTable scanLayouts(@NotNull ProgressIndicator progressIndicator, ModuleSourceSet sourceSet, List<LayoutRewritePlan> layoutPlans) {
+        MigrationReport.PhaseTimer timer = mReport.startOverlappingPhase(MigrationReport.PHASE_LAYOUT_SCAN);
+        LayoutScanner layoutScanner = new LayoutScanner(mProject, mReport, mJournal, mScope);
+        BindingLayoutTable bindingLayouts;
+        if (mSelectedBindingImports == null) {
+            bindingLayouts = layoutScanner.scan(progressIndicator, sourceSet, layoutPlans);
+        } else {
+            List<VirtualFile> layoutFiles = ReadActionUtil.computeCancellable(progressIndicator, () ->
+                    new ArrayList<>(LayoutIdIndex.findLayoutFiles(mSelectedBindingImports, sourceSet.getScope())));
+            bindingLayouts = layoutScanner.scan(progressIndicator, sourceSet, layoutFiles, layoutPlans);
+        }
+        timer.stop(bindingLayouts.size());
+        mBindingClassResolver.addKnownBindings(bindingLayouts);
+        LOG.info(sourceSet.getName() + ": " + bindingLayouts.size() + " layouts in " + sourceSet.getDirs());
+        return bindingLayouts;
+    }
+
+    private MigrationPlan planModule(@NotNull ProgressIndicator progressIndicator, ModuleSourceSet sourceSet,
+                                     BindingLayoutTable bindingLayouts, List<LayoutRewritePlan> layoutPlans, ExecutorService javaExecutor) {
+        MigrationReport.PhaseTimer timer = mReport.startOverlappingPhase(MigrationReport.PHASE_JAVA_ANALYSIS);
+        List<JavaRewritePlan> javaPlans = analyzeJava(progressIndicator, getJavaScope(sourceSet), bindingLayouts, javaExecutor);
+        timer.stop(javaPlans.size());
+        return new MigrationPlan(sourceSet.getName(), bindingLayouts, layoutPlans, javaPlans);
+    }
+
+    /**
+     * Workers on the shared executor take the module's files from a queue, largest first so that a few huge files do
+     * not end up at the tail. Plans keep the index order, so the write phase does not depend on scheduling.
+     */
+    private List<JavaRewritePlan> analyzeJava(@NotNull ProgressIndicator progressIndicator, GlobalSearchScope scope,
+                                              BindingLayoutTable bindingLayouts, ExecutorService javaExecutor) {
+        // only files importing DataBindingUtil or a *Binding class get their PSI loaded
+        List<VirtualFile> javaFiles = new ArrayList<>(ReadActionUtil.computeCancellable(progressIndicator, () ->
+                DataBindingUsageIndex.getDataBindingFiles(scope)));
+        if (javaFiles.isEmpty()) return new ArrayList<>();
+
+        PriorityBlockingQueue<VirtualFile> largestFirst = new PriorityBlockingQueue<>(javaFiles.size(),
+                Comparator.comparingLong(VirtualFile::getLength).reversed());
+        largestFirst.addAll(javaFiles);
+        AtomicLong resolveNanos = new AtomicLong();
+        Map<VirtualFile, JavaRewritePlan> plansByFile = new ConcurrentHashMap<>();
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int i = Math.min(mJavaAnalysisThreads, javaFiles.size()); i > 0; i--) {
+                workers.add(javaExecutor.submit(() -> {
+                    VirtualFile javaFile;
+                    while ((javaFile = largestFirst.poll()) != null) {
+                        VirtualFile file = javaFile;
+                        JavaRewritePlan javaPlan = mHeapThrottle == null
+                                ? analyzeJavaFile(progressIndicator, file, bindingLayouts, resolveNanos)
+                                : mHeapThrottle.compute(progressIndicator, () -> analyzeJavaFile(progressIndicator, file, bindingLayouts, resolveNanos));
+                        if (javaPlan != null) {
+                            plansByFile.put(file, javaPlan);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            List<JavaRewritePlan> javaPlans = new ArrayList<>();
+            for (VirtualFile javaFile : javaFiles) {
+                JavaRewritePlan javaPlan = plansByFile.get(javaFile);
+                if (javaPlan != null) {
+                    javaPlans.add(javaPlan);
+                }
+            }
+            LOG.info("resolved " + javaFiles.size() + " java files in " + TimeUnit.NANOSECONDS.toMillis(resolveNanos.get()) + "ms");
+            return javaPlans;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ProcessCanceledException) {
+                throw (ProcessCanceledException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            throw new ProcessCanceledException(e);
+        } finally {
+            // a failed worker stops the others once they finish their current file
+            largestFirst.clear();
+            for (Future<?> worker : workers) {
+                worker.cancel(false);
+            }
+        }
+    }
+
+    private JavaRewritePlan analyzeJavaFile(@NotNull ProgressIndicator progressIndicator, VirtualFile javaFile,
+                                            BindingLayoutTable bindingLayouts, AtomicLong resolveNanos) {
+        progressIndicator.setText("analyzing " + javaFile.getName());
+        long fileStart = System.currentTimeMillis();
+        try {
+            // checked before loading the PSI, a resumed run does not parse what it already migrated
+            if (mJournal.isCompleted(javaFile)) return null;
+
+            long start = System.nanoTime();
+            PsiJavaFile psiJavaFile = ReadActionUtil.computeCancellable(progressIndicator, () -> {
+                PsiFile psiFile = PsiManager.getInstance(mProject).findFile(javaFile);
+                return psiFile instanceof PsiJavaFile && ((PsiJavaFile) psiFile).getClasses().length > 0 ? (PsiJavaFile) psiFile : null;
+            });
+            resolveNanos.addAndGet(System.nanoTime() - start);
+            if (psiJavaFile == null) return null;
+
+            return ReadActionUtil.computeCancellable(progressIndicator, () -> {
+                long importStart = System.nanoTime();
+                Set<String> dataBindingImports = JavaBindingHunter.findDataBindingImports(psiJavaFile, mBindingClassResolver);
+                mReport.addStep(MigrationReport.STEP_IMPORT_ANALYSIS, System.nanoTime() - importStart);
+                if (dataBindingImports.isEmpty()) return null;
+
+                JavaTextEdits textEdits = null;
+                if (mTextEditJavaRewrite) {
+                    long planStart = System.nanoTime();
+                    textEdits = JavaTextEditPlanner.plan(psiJavaFile, dataBindingImports, bindingLayouts, mReport);
+                    mReport.addStep(MigrationReport.STEP_TEXT_EDIT_PLANNING, System.nanoTime() - planStart);
+                }
+                return new JavaRewritePlan(SmartPointerManager.getInstance(mProject).createSmartPsiElementPointer(psiJavaFile),
+                        javaFile.getPath(), javaFile.getName(), dataBindingImports, textEdits);
+            });
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (Exception e) {
+            reportError(javaFile.getName(), e);
+            return null;
+        } finally {
+            mReport.addFileDuration(javaFile.getPath(), MigrationReport.PHASE_JAVA_ANALYSIS, System.currentTimeMillis() - fileStart);
+        }
+    }
+
+    public void apply(@NotNull ProgressIndicator progressIndicator, MigrationPlan plan) {
+        MigrationReport.PhaseTimer timer = mReport.startPhase(MigrationReport.PHASE_LAYOUT_REWRITE);
+        applyInBatches(progressIndicator, plan.getLayoutPlans(), LayoutRewritePlan::getPointer, layoutPlan -> {
+            long fileStart = System.currentTimeMillis();
+            boolean clean = true;
+            if (!mStreamingLayoutRewrite || !streamLayout(layoutPlan)) {
+                PsiFile xmlFile = layoutPlan.getXmlFile();
+                if (xmlFile == null) return false;
+                try {
+                    new LayoutXmlHunter(xmlFile).hunt();
+                } catch (Exception e) {
+                    reportError(xmlFile.getName(), e);
+                    clean = false;
+                }
+            }
+            mReport.addFileDuration(layoutPlan.getPath(), MigrationReport.PHASE_LAYOUT_REWRITE, System.currentTimeMillis() - fileStart);
+            return clean;
+        });
+        timer.stop(plan.getLayoutPlans().size());
+
+        timer = mReport.startPhase(MigrationReport.PHASE_JAVA_REWRITE);
+        Map<String, String> viewHolders = mViewHolderOutput ? generateViewHolders(plan) : Collections.emptyMap();
+        applyInBatches(progressIndicator, plan.getJavaPlans(), JavaRewritePlan::getPointer, javaPlan -> {
+            PsiJavaFile psiJavaFile = javaPlan.getJavaFile();
+            if (psiJavaFile == null) return false;
+            long fileStart = System.currentTimeMillis();
+            if (javaPlan.usesTextEdits(viewHolders.keySet())) {
+                try {
+                    if (applyTextEdits(javaPlan.getTextEdits())) {
+                        mReport.addFileDuration(javaPlan.getPath(), MigrationReport.PHASE_JAVA_REWRITE, System.currentTimeMillis() - fileStart);
+                        return true;
+                    }
+                } catch (Exception e) {
+                    // not journaled, the next run migrates the file again
+                    reportError(psiJavaFile.getName(), e);
+                    return false;
+                }
+            }
+            boolean clean = true;
+            FileEditBatch editBatch = new FileEditBatch(psiJavaFile);
+            for (PsiClass psiClass : psiJavaFile.getClasses()) {
+                long start = System.nanoTime();
+                try {
+                    JavaBindingHunter javaBindingHunter = new JavaBindingHunter(psiClass, plan.getBindingLayouts(), mReport, editBatch, viewHolders);
+                    if (javaBindingHunter.hunt(javaPlan.getDataBindingImports())) {
+                        mReport.addMigratedClass(psiClass.getName());
+                    }
+                } catch (Exception e) {
+                    reportError(psiClass.getName(), e);
+                    clean = false;
+                }
+                mReport.addStep(MigrationReport.STEP_REWRITE, System.nanoTime() - start);
+            }
+            try {
+                JavaBindingHunter.commitEdits(editBatch, mReport);
+            } catch (Exception e) {
+                reportError(psiJavaFile.getName(), e);
+                clean = false;
+            }
+            mReport.addFileDuration(psiJavaFile.getVirtualFile().getPath(), MigrationReport.PHASE_JAVA_REWRITE, System.currentTimeMillis() - fileStart);
+            return clean;
+        });
+        timer.stop(plan.getJavaPlans().size());
+    }
+
+    /**
+     * Holders for the bindings imported by the java files of the plan, generated in one command before they are
+     * rewritten. A binding of a dependency gets its holder once, in the module of its layout.
+     *
+     * @return qualified binding -> qualified view holder, for the bindings of the plan that have one
+     */
+    private Map<String, String> generateViewHolders(MigrationPlan plan) {
+        Map<String, LayoutXmlInfo> missingHolders = new LinkedHashMap<>();
+        for (JavaRewritePlan javaPlan : plan.getJavaPlans()) {
+            for (String dataBindingImport : javaPlan.getDataBindingImports()) {
+                LayoutXmlInfo layoutXmlInfo = plan.getBindingLayouts().get(dataBindingImport);
+                if (!mViewHolders.containsKey(dataBindingImport) && ViewHolderGenerator.canGenerate(dataBindingImport, layoutXmlInfo)) {
+                    missingHolders.put(dataBindingImport, layoutXmlInfo);
+                }
+            }
+        }
+        if (!missingHolders.isEmpty()) {
+            long start = System.nanoTime();
+            WriteCommandAction.runWriteCommandAction(mProject, COMMAND_NAME, null, () -> {
+                for (Map.Entry<String, LayoutXmlInfo> missingHolder : missingHolders.entrySet()) {
+                    String holderName = null;
+                    try {
+                        PsiClass holder = ViewHolderGenerator.generate(mProject, missingHolder.getKey(), missingHolder.getValue());
+                        holderName = holder == null ? null : holder.getQualifiedName();
+                    } catch (Exception e) {
+                        reportError(ViewHolderGenerator.getHolderName(missingHolder.getKey()), e);
+                    }
+                    mViewHolders.put(missingHolder.getKey(), holderName);
+                }
+            });
+            mReport.addStep(MigrationReport.STEP_VIEW_HOLDER_GENERATION, System.nanoTime() - start);
+        }
+
+        Map<String, String> viewHolders = new HashMap<>();
+        for (JavaRewritePlan javaPlan : plan.getJavaPlans()) {
+            for (String dataBindingImport : javaPlan.getDataBindingImports()) {
+                if (mViewHolders.get(dataBindingImport) != null) {
+                    viewHolders.put(dataBindingImport, mViewHolders.get(dataBindingImport));
+                }
+            }
+        }
+        return viewHolders;
+    }
+
+    /**
+     * @return false if the documents changed since planning and the file has to go through the psi path instead
+     */
+    private boolean applyTextEdits(JavaTextEdits textEdits) {
+        long start = System.nanoTime();
+        if (!textEdits.apply(mProject)) return false;
+        mReport.addStep(MigrationReport.STEP_REWRITE, System.nanoTime() - start);
+        for (String className : textEdits.getMigratedClasses()) {
+            mReport.addMigratedClass(className);
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the layout has to go through the psi path instead
+     */
+    private boolean streamLayout(LayoutRewritePlan layoutPlan) {
+        VirtualFile layoutFile = layoutPlan.getVirtualFile();
+        if (layoutFile == null || !LayoutXmlStreamRewriter.canRewrite(layoutFile)) return false;
+
+        Document document = FileDocumentManager.getInstance().getDocument(layoutFile);
+        LayoutXmlStreamRewriter.Result result = document == null ? null : LayoutXmlStreamRewriter.rewrite(document.getText());
+        if (result == null) return false;
+
+        // through the document, so undoing the chunk's command restores the layout
+        document.setText(result.getText());
+        return true;
+    }
+
+    /**
+     * Each chunk is its own undoable command, cancellation is checked between files. The files of a chunk are saved
+     * once it is applied, and those that applied cleanly are journaled with their saved content.
+     * A memory-bounded run sizes each chunk by the free heap and releases it once applied.
+     *
+     * @param applier whether the file applied without errors
+     */
+    private <T> void applyInBatches(@NotNull ProgressIndicator progressIndicator, List<T> plans,
+                                    Function<T, SmartPsiElementPointer<? extends PsiFile>> pointerOf, Function<T, Boolean> applier) {
+        int batchSize = mChunkSize;
+        for (int start = 0; start < plans.size(); start += batchSize) {
+            progressIndicator.checkCanceled();
+            if (mHeapThrottle != null) {
+                batchSize = mHeapThrottle.nextBatchSize(batchSize, mChunkSize);
+            }
+            List<T> batch = plans.subList(start, Math.min(plans.size(), start + batchSize));
+            progressIndicator.setText("applying " + (start + batch.size()) + "/" + plans.size());
+            List<T> applied = new ArrayList<>();
+            WriteCommandAction.runWriteCommandAction(mProject, COMMAND_NAME, null, () -> {
+                for (T plan : batch) {
+                    if (progressIndicator.isCanceled()) break;
+                    if (applier.fun(plan)) {
+                        applied.add(plan);
+                    }
+                }
+            });
+            mJournal.markCompleted(saveBatch(ContainerUtil.map(batch, pointerOf), ContainerUtil.map(applied, pointerOf)));
+            if (mHeapThrottle != null) {
+                releaseBatch(ContainerUtil.map(batch, pointerOf));
+            }
+            mAppliedUnits += batch.size();
+            progressIndicator.setFraction(0.5 + 0.5 * mAppliedUnits / Math.max(1, mTotalUnits));
+        }
+    }
+
+    /**
+     * Save the documents of an applied batch, the journal records the saved content.
+     *
+     * @return the files of the applied pointers
+     */
+    private List<VirtualFile> saveBatch(List<SmartPsiElementPointer<? extends PsiFile>> pointers,
+                                        List<SmartPsiElementPointer<? extends PsiFile>> appliedPointers) {
+        List<VirtualFile> appliedFiles = new ArrayList<>();
+        ApplicationManager.getApplication().invokeAndWait(() -> {
+            PsiDocumentManager.getInstance(mProject).commitAllDocuments();
+            FileDocumentManager fileDocumentManager = FileDocumentManager.getInstance();
+            for (SmartPsiElementPointer<? extends PsiFile> pointer : pointers) {
+                VirtualFile file = pointer.getVirtualFile();
+                Document document = file == null ? null : fileDocumentManager.getCachedDocument(file);
+                if (document != null) {
+                    fileDocumentManager.saveDocument(document);
+                }
+                if (file != null && appliedPointers.contains(pointer)) {
+                    appliedFiles.add(file);
+                }
+            }
+        });
+        return appliedFiles;
+    }
+
+    /**
+     * Drop the pointers of an applied batch, live pointers would otherwise keep the psi of every migrated file
+     * reachable until the run ends.
+     */
+    private void releaseBatch(List<SmartPsiElementPointer<? extends PsiFile>> pointers) {
+        SmartPointerManager smartPointerManager = SmartPointerManager.getInstance(mProject);
+        ApplicationManager.getApplication().invokeAndWait(() -> {
+            for (SmartPsiElementPointer<? extends PsiFile> pointer : pointers) {
+                smartPointerManager.removePointer(pointer);
+            }
+        });
+    }
+
+    private void reportError(String fileName, Exception e) {
+        LOG.warn("Exception threw when handle " + fileName, e);
+        mReport.addError(fileName, e);
+    }
+}
@@ -0,0 +1,140 @@
+package me.texy.databindinghunter.engine;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only list of files already migrated, so an interrupted run resumes where it stopped.
+ * Lives in .idea and is deleted once a run completes.
+ * <p>
+ * Each entry holds the hash of the file as it was saved after migrating it, a file whose content differs since,
+ * such as one whose chunk was undone, is migrated again.
+ */
+public class MigrationJournal {
+
+    private static final Logger LOG = Logger.getInstance(MigrationJournal.class);
+    private static final String JOURNAL_FILE = "databindinghunter.journal";
+    private static final char SEPARATOR = '\t';
+
+    private final File mFile;
+    // path -> content hash
+    private final Map<String, String> mCompleted = new ConcurrentHashMap<>();
+
+    private MigrationJournal(File file) {
+        this.mFile = file;
+    }
+
+    public static MigrationJournal open(Project project) {
+        File ideaDir = new File(project.getBasePath(), Project.DIRECTORY_STORE_FOLDER);
+        MigrationJournal journal = new MigrationJournal(new File(ideaDir.isDirectory() ? ideaDir : new File(project.getBasePath()), JOURNAL_FILE));
+        journal.load();
+        return journal;
+    }
+
+    private void load() {
+        if (!mFile.isFile()) return;
+        try {
+            for (String line : FileUtil.loadLines(mFile)) {
+                int separator = line.indexOf(SEPARATOR);
+                // a later entry of the same path wins, it was migrated again
+                if (separator > 0) {
+                    mCompleted.put(line.substring(separator + 1), line.substring(0, separator));
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Can not read migration journal " + mFile, e);
+        }
+    }
+
+    /**
+     * Reads the file when it has an entry, not otherwise.
+     */
+    public boolean isCompleted(VirtualFile file) {
+        String hash = mCompleted.get(file.getPath());
+        return hash != null && hash.equals(hash(file));
+    }
+
+    public int size() {
+        return mCompleted.size();
+    }
+
+    /**
+     * @param files migrated and saved
+     */
+    public synchronized void markCompleted(Collection<VirtualFile> files) {
+        if (files.isEmpty()) return;
+        try (Writer writer = new FileWriter(mFile, true)) {
+            for (VirtualFile file : files) {
+                String hash = hash(file);
+                if (hash == null) continue;
+
+                mCompleted.put(file.getPath(), hash);
+                writer.write(hash);
+                writer.write(SEPARATOR);
+                writer.write(file.getPath());
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            LOG.warn("Can not write migration journal " + mFile, e);
+        }
+    }
+
+    public synchronized void clear() {
+        mCompleted.clear();
+        FileUtil.delete(mFile);
+    }
+
+    /**
+     * Forgets the files of a scoped run only, the entries of an interrupted whole-project run outside it are kept.
+     */
+    public synchronized void clear(GlobalSearchScope scope) {
+        ApplicationManager.getApplication().runReadAction(() -> {
+            // files deleted since can not be in the scope, nor completed
+            mCompleted.keySet().removeIf(path -> {
+                VirtualFile file = LocalFileSystem.getInstance().findFileByPath(path);
+                return file == null || scope.contains(file);
+            });
+        });
+        if (mCompleted.isEmpty()) {
+            FileUtil.delete(mFile);
+            return;
+        }
+        try (Writer writer = new FileWriter(mFile, false)) {
+            for (Map.Entry<String, String> entry : mCompleted.entrySet()) {
+                writer.write(entry.getValue());
+                writer.write(SEPARATOR);
+                writer.write(entry.getKey());
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            LOG.warn("Can not write migration journal " + mFile, e);
+        }
+    }
+
+    /**
+     * @return null if the file can not be read
+     */
+    private static String hash(VirtualFile file) {
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(file.contentsToByteArray());
+            return Long.toHexString(crc.getValue()) + "-" + file.getLength();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package me.texy.databindinghunter.engine;
+
+import me.texy.databindinghunter.BindingLayoutTable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything the write phase needs for one module, computed under read actions.
+ */
+public final class MigrationPlan {
+
+    private final String mName;
+    private final BindingLayoutTable mBindingLayouts;
+    private final List<LayoutRewritePlan> mLayoutPlans;
+    private final List<JavaRewritePlan> mJavaPlans;
+
+    public MigrationPlan(String name, BindingLayoutTable bindingLayouts, List<LayoutRewritePlan> layoutPlans, List<JavaRewritePlan> javaPlans) {
+        this.mName = name;
+        this.mBindingLayouts = bindingLayouts;
+        this.mLayoutPlans = Collections.unmodifiableList(layoutPlans);
+        this.mJavaPlans = Collections.unmodifiableList(javaPlans);
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Layouts of the source set and of every module it depends on.
+     */
+    public BindingLayoutTable getBindingLayouts() {
+        return mBindingLayouts;
+    }
+
+    public List<LayoutRewritePlan> getLayoutPlans() {
+        return mLayoutPlans;
+    }
+
+    public List<JavaRewritePlan> getJavaPlans() {
+        return mJavaPlans;
+    }
+}
@@ -0,0 +1,106 @@
+package me.texy.databindinghunter.engine;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.GeneratedSourcesFilter;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopes;
+import com.intellij.psi.search.searches.ReferencesSearch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Files, directories and modules selected for a migration. Java files are migrated only inside the selection, layouts
+ * only if they are reachable from it, and unwrapped only if nothing outside the selection refers to their binding.
+ */
+public final class MigrationScope {
+
+    private final GlobalSearchScope mScope;
+    private final String mDescription;
+
+    private MigrationScope(GlobalSearchScope scope, String description) {
+        this.mScope = scope;
+        this.mDescription = description;
+    }
+
+    /**
+     * @return whether the selection holds the project base dir
+     */
+    public static boolean isWholeProject(Project project, VirtualFile[] files) {
+        if (files == null) return false;
+
+        for (VirtualFile file : files) {
+            if (file.equals(project.getBaseDir())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return null if nothing is selected or the selection covers the whole project
+     */
+    public static MigrationScope fromSelection(Project project, VirtualFile[] files, Module[] modules) {
+        if (isWholeProject(project, files)) return null;
+
+        List<GlobalSearchScope> scopes = new ArrayList<>();
+        List<VirtualFile> dirs = new ArrayList<>();
+        List<VirtualFile> plainFiles = new ArrayList<>();
+        String description = null;
+        if (modules != null) {
+            for (Module module : modules) {
+                scopes.add(GlobalSearchScope.moduleScope(module));
+                description = module.getName();
+            }
+        }
+        if (files != null) {
+            for (VirtualFile file : files) {
+                (file.isDirectory() ? dirs : plainFiles).add(file);
+                description = file.getName();
+            }
+        }
+        if (!dirs.isEmpty()) {
+            scopes.add(GlobalSearchScopes.directoriesScope(project, true, dirs.toArray(VirtualFile.EMPTY_ARRAY)));
+        }
+        if (!plainFiles.isEmpty()) {
+            scopes.add(GlobalSearchScope.filesScope(project, plainFiles));
+        }
+        if (scopes.isEmpty()) return null;
+
+        int count = (modules == null ? 0 : modules.length) + dirs.size() + plainFiles.size();
+        return new MigrationScope(GlobalSearchScope.union(scopes.toArray(GlobalSearchScope.EMPTY_ARRAY)),
+                count == 1 ? description : count + " selected items");
+    }
+
+    public GlobalSearchScope getScope() {
+        return mScope;
+    }
+
+    public String getDescription() {
+        return mDescription;
+    }
+
+    /**
+     * Whether the layout of a binding class can be unwrapped: files outside the selection, java or kotlin, keep their
+     * bindings. A binding that does not resolve may have users the search can not see, so it is kept too.
+     * Must be called in a read action.
+     */
+    public boolean isUsedOnlyInside(Project project, String qualifiedBindingName) {
+        PsiClass bindingClass = JavaPsiFacade.getInstance(project).findClass(qualifiedBindingName, GlobalSearchScope.allScope(project));
+        if (bindingClass == null) return false;
+
+        PsiFile bindingFile = bindingClass.getContainingFile();
+        GlobalSearchScope outside = GlobalSearchScope.projectScope(project).intersectWith(GlobalSearchScope.notScope(mScope));
+        return ReferencesSearch.search(bindingClass, outside).forEach(reference -> {
+            PsiFile file = reference.getElement().getContainingFile();
+            if (file == null || file.getOriginalFile().equals(bindingFile)) return true;
+
+            // the generated bindings refer to each other, they go away with the layouts
+            VirtualFile virtualFile = file.getVirtualFile();
+            return virtualFile != null && GeneratedSourcesFilter.isGeneratedSourceByAnyFilter(virtualFile, project);
+        });
+    }
+}
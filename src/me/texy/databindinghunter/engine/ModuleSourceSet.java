@@ -0,0 +1,196 @@
+package me.texy.databindinghunter.engine;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopes;
+import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.jps.model.java.JavaResourceRootType;
+import org.jetbrains.jps.model.java.JavaSourceRootType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Android source set directories of one module (src/main, src/debug, ...), found from the module's source roots.
+ */
+public final class ModuleSourceSet {
+
+    private static final String DIR_RES = "res";
+    private static final String ANDROID_MANIFEST = "AndroidManifest.xml";
+    private static final String ATTR_PACKAGE = "package";
+    private static final String[] BUILD_FILES = {"build.gradle", "build.gradle.kts"};
+    // namespace 'com.demo' or namespace = "com.demo"
+    private static final Pattern GRADLE_NAMESPACE = Pattern.compile("^\\s*namespace\\s*=?\\s*['\"]([\\w.]+)['\"]", Pattern.MULTILINE);
+    private static final String CLASS_R = "R";
+    private static final String R_LAYOUT = "layout";
+
+    private final Module mModule;
+    private final List<VirtualFile> mDirs;
+    // modules this one depends on, transitively
+    private final List<Module> mDependencies;
+    // application package, where R and the generated bindings go
+    private final String mAppPackage;
+
+    private ModuleSourceSet(Module module, List<VirtualFile> dirs, List<Module> dependencies, String appPackage) {
+        this.mModule = module;
+        this.mDirs = Collections.unmodifiableList(dirs);
+        this.mDependencies = Collections.unmodifiableList(dependencies);
+        this.mAppPackage = appPackage;
+    }
+
+    /**
+     * Every module with production sources, dependencies before dependents. Must be called in a read action.
+     */
+    public static List<ModuleSourceSet> discover(Project project) {
+        List<ModuleSourceSet> sourceSets = new ArrayList<>();
+        for (Module module : ModuleManager.getInstance(project).getSortedModules()) {
+            ModuleRootManager rootManager = ModuleRootManager.getInstance(module);
+            Set<VirtualFile> dirs = new LinkedHashSet<>();
+            for (VirtualFile root : rootManager.getSourceRoots(JavaSourceRootType.SOURCE)) {
+                dirs.add(getSourceSetDir(root));
+            }
+            for (VirtualFile root : rootManager.getSourceRoots(JavaResourceRootType.RESOURCE)) {
+                dirs.add(getSourceSetDir(root));
+            }
+            if (dirs.isEmpty()) continue;
+
+            List<Module> dependencies = new ArrayList<>();
+            rootManager.orderEntries().recursively().forEachModule(dependency -> {
+                if (dependency != module) {
+                    dependencies.add(dependency);
+                }
+                return true;
+            });
+            List<VirtualFile> sourceSetDirs = removeNested(dirs);
+            sourceSets.add(new ModuleSourceSet(module, sourceSetDirs, dependencies, findAppPackage(project, module, sourceSetDirs)));
+        }
+        return sourceSets;
+    }
+
+    /**
+     * src/main/java -> src/main when it looks like an android source set, so res/layout is covered too.
+     */
+    private static VirtualFile getSourceSetDir(VirtualFile root) {
+        VirtualFile parent = root.getParent();
+        if (parent != null && (parent.findChild(DIR_RES) != null || parent.findChild(ANDROID_MANIFEST) != null)) {
+            return parent;
+        }
+        return root;
+    }
+
+    /**
+     * The manifest package, else the namespace of the module's gradle build file (AGP 7+ drops the manifest one),
+     * else the package of the module's R class. Must be called in a read action.
+     */
+    static String findAppPackage(Project project, Module module, List<VirtualFile> dirs) {
+        for (VirtualFile dir : dirs) {
+            String appPackage = findManifestPackage(project, dir);
+            if (appPackage != null) return appPackage;
+        }
+        for (VirtualFile dir : dirs) {
+            // src/main -> the module dir holding build.gradle
+            VirtualFile srcDir = dir.getParent();
+            String appPackage = srcDir == null ? null : findGradleNamespace(srcDir.getParent());
+            if (appPackage != null) return appPackage;
+        }
+        for (VirtualFile contentRoot : ModuleRootManager.getInstance(module).getContentRoots()) {
+            String appPackage = findGradleNamespace(contentRoot);
+            if (appPackage != null) return appPackage;
+        }
+        return findRPackage(project, module);
+    }
+
+    private static String findManifestPackage(Project project, VirtualFile dir) {
+        VirtualFile manifest = dir.findChild(ANDROID_MANIFEST);
+        PsiFile manifestFile = manifest == null ? null : PsiManager.getInstance(project).findFile(manifest);
+        XmlTag rootTag = manifestFile instanceof XmlFile ? ((XmlFile) manifestFile).getRootTag() : null;
+        String appPackage = rootTag == null ? null : rootTag.getAttributeValue(ATTR_PACKAGE);
+        return appPackage == null || appPackage.trim().isEmpty() ? null : appPackage.trim();
+    }
+
+    private static String findGradleNamespace(VirtualFile moduleDir) {
+        if (moduleDir == null) return null;
+        for (String name : BUILD_FILES) {
+            VirtualFile buildFile = moduleDir.findChild(name);
+            if (buildFile == null) continue;
+            try {
+                Matcher matcher = GRADLE_NAMESPACE.matcher(VfsUtilCore.loadText(buildFile));
+                if (matcher.find()) return matcher.group(1);
+            } catch (IOException ignored) {
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The R class generated for the module's own resources, one with an R.layout, null when there is none or several.
+     */
+    private static String findRPackage(Project project, Module module) {
+        String appPackage = null;
+        for (PsiClass rClass : PsiShortNamesCache.getInstance(project).getClassesByName(CLASS_R, GlobalSearchScope.moduleScope(module))) {
+            String qualifiedName = rClass.getQualifiedName();
+            if (qualifiedName == null || qualifiedName.indexOf('.') == -1 || rClass.findInnerClassByName(R_LAYOUT, false) == null) {
+                continue;
+            }
+            String rPackage = qualifiedName.substring(0, qualifiedName.lastIndexOf('.'));
+            if (appPackage != null && !appPackage.equals(rPackage)) return null;
+            appPackage = rPackage;
+        }
+        return appPackage;
+    }
+
+    private static List<VirtualFile> removeNested(Set<VirtualFile> dirs) {
+        return ContainerUtil.filter(dirs, dir -> {
+            for (VirtualFile other : dirs) {
+                if (other != dir && VfsUtilCore.isAncestor(other, dir, true)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    public Module getModule() {
+        return mModule;
+    }
+
+    public String getName() {
+        return mModule.getName();
+    }
+
+    public List<VirtualFile> getDirs() {
+        return mDirs;
+    }
+
+    public List<Module> getDependencies() {
+        return mDependencies;
+    }
+
+    /**
+     * @return the application package, or null if neither the manifest, the gradle build nor an R class tells it
+     */
+    public String getAppPackage() {
+        return mAppPackage;
+    }
+
+    public GlobalSearchScope getScope() {
+        return GlobalSearchScopes.directoriesScope(mModule.getProject(), true, mDirs.toArray(VirtualFile.EMPTY_ARRAY));
+    }
+}
@@ -0,0 +1,214 @@
+package me.texy.databindinghunter.engine;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.javadoc.PsiDocComment;
+import com.intellij.psi.search.GlobalSearchScope;
+import me.texy.databindinghunter.LayoutXmlInfo;
+import me.texy.databindinghunter.util.StringUtil;
+import me.texy.databindinghunter.util.ViewUtil;
+import org.jetbrains.jps.model.java.JavaSourceRootType;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Writes one small class per layout that looks up every view with an id once, in its constructor, so migrated code
+ * keeps the field access of the binding without the data binding runtime. The holder goes next to the binding it
+ * replaces, FooBinding -> FooViews, with the fields of the binding and a getRoot().
+ */
+public class ViewHolderGenerator {
+
+    private static final String BINDING_SUFFIX = "Binding";
+    private static final String HOLDER_SUFFIX = "Views";
+    private static final String CLASS_VIEW = "android.view.View";
+    private static final String DIR_JAVA = "java";
+    // in the doc comment of every generated holder, tells them from hand-written classes
+    private static final String HOLDER_DOC = "looked up once when the layout is inflated";
+
+    /**
+     * com.demo.databinding.MainActivityBinding -> com.demo.databinding.MainActivityViews
+     */
+    public static String getHolderName(String qualifiedBindingName) {
+        String name = qualifiedBindingName.endsWith(BINDING_SUFFIX)
+                ? qualifiedBindingName.substring(0, qualifiedBindingName.length() - BINDING_SUFFIX.length()) : qualifiedBindingName;
+        return name + HOLDER_SUFFIX;
+    }
+
+    /**
+     * A holder needs the package of its binding and the layout file, which tells the module and the R class.
+     */
+    public static boolean canGenerate(String qualifiedBindingName, LayoutXmlInfo layoutXmlInfo) {
+        return layoutXmlInfo != null && layoutXmlInfo.getLayoutFile() != null && qualifiedBindingName.indexOf('.') != -1;
+    }
+
+    /**
+     * Must run in a write action. A holder left by an earlier run is kept while it has the views of the layout, and
+     * regenerated once ids were added, removed or retyped.
+     *
+     * @return the holder class, null if the layout's module has no java source root or no known application package,
+     * or if a class of the holder's name was not written by this generator
+     */
+    public static PsiClass generate(Project project, String qualifiedBindingName, LayoutXmlInfo layoutXmlInfo) throws IOException {
+        PsiClass existing = findHolder(project, qualifiedBindingName);
+        if (existing != null && !isGenerated(existing)) return null;
+        if (existing != null && hasViewsOf(existing, layoutXmlInfo)) return existing;
+
+        PsiJavaFile holderFile = createHolderFile(project, qualifiedBindingName, layoutXmlInfo);
+        if (holderFile == null) return null;
+        if (existing != null) {
+            PsiElement replaced = existing.replace(holderFile.getClasses()[0]);
+            return (PsiClass) CodeStyleManager.getInstance(project).reformat(JavaCodeStyleManager.getInstance(project).shortenClassReferences(replaced));
+        }
+
+        Module module = ModuleUtilCore.findModuleForFile(layoutXmlInfo.getLayoutFile(), project);
+        VirtualFile sourceRoot = module == null ? null : findSourceRoot(module, getSourceSetDir(layoutXmlInfo));
+        if (sourceRoot == null) return null;
+
+        String packageName = holderFile.getPackageName();
+        VirtualFile packageDir = VfsUtil.createDirectoryIfMissing(sourceRoot, packageName.replace('.', '/'));
+        PsiDirectory directory = PsiManager.getInstance(project).findDirectory(packageDir);
+        if (directory == null) return null;
+
+        PsiFile added = (PsiFile) directory.add(holderFile);
+        CodeStyleManager.getInstance(project).reformat(JavaCodeStyleManager.getInstance(project).shortenClassReferences(added));
+        PsiClass[] classes = ((PsiJavaFile) added).getClasses();
+        return classes.length > 0 ? classes[0] : null;
+    }
+
+    /**
+     * Must be called in a read action.
+     */
+    public static PsiClass findHolder(Project project, String qualifiedBindingName) {
+        return JavaPsiFacade.getInstance(project).findClass(getHolderName(qualifiedBindingName), GlobalSearchScope.projectScope(project));
+    }
+
+    /**
+     * Whether the class was written by {@link #generate}, a hand-written class of the same name is never touched.
+     */
+    public static boolean isGenerated(PsiClass holder) {
+        PsiDocComment docComment = holder.getDocComment();
+        return docComment != null && docComment.getText().contains(HOLDER_DOC);
+    }
+
+    /**
+     * Whether the holder has a field of the right type for every view of the layout, and no other.
+     */
+    public static boolean hasViewsOf(PsiClass holder, LayoutXmlInfo layoutXmlInfo) {
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < layoutXmlInfo.size(); i++) {
+            expected.add(StringUtil.getClassNameFromPath(getViewType(layoutXmlInfo.getTag(i))) + " " + layoutXmlInfo.getViewRefName(i));
+        }
+        Set<String> actual = new HashSet<>();
+        for (PsiField field : holder.getFields()) {
+            if (field.hasModifierProperty(PsiModifier.PUBLIC)) {
+                actual.add(field.getType().getPresentableText() + " " + field.getName());
+            }
+        }
+        return expected.equals(actual);
+    }
+
+    /**
+     * The holder as a file that is not in the project yet, with fully qualified references. Must be called in a read action.
+     *
+     * @return null if the application package of the layout's module is not known
+     */
+    public static PsiJavaFile createHolderFile(Project project, String qualifiedBindingName, LayoutXmlInfo layoutXmlInfo) {
+        VirtualFile sourceSetDir = getSourceSetDir(layoutXmlInfo);
+        Module module = ModuleUtilCore.findModuleForFile(layoutXmlInfo.getLayoutFile(), project);
+        if (sourceSetDir == null || module == null) return null;
+
+        String appPackage = ModuleSourceSet.findAppPackage(project, module, Collections.singletonList(sourceSetDir));
+        if (appPackage == null) return null;
+
+        String holderName = getHolderName(qualifiedBindingName);
+        String packageName = holderName.substring(0, holderName.lastIndexOf('.'));
+        String className = StringUtil.getClassNameFromPath(holderName);
+        return (PsiJavaFile) PsiFileFactory.getInstance(project).createFileFromText(className + "." + JavaFileType.DEFAULT_EXTENSION,
+                JavaFileType.INSTANCE, buildSource(packageName, className, appPackage + ".R", layoutXmlInfo));
+    }
+
+    /**
+     * res/layout/foo.xml -> the source set dir holding res, java and the manifest
+     */
+    private static VirtualFile getSourceSetDir(LayoutXmlInfo layoutXmlInfo) {
+        VirtualFile layoutFile = layoutXmlInfo.getLayoutFile();
+        VirtualFile resDir = layoutFile.getParent() == null ? null : layoutFile.getParent().getParent();
+        return resDir == null ? null : resDir.getParent();
+    }
+
+    /**
+     * The java root of the layout's own source set, so a debug layout gets a debug holder, otherwise the first one.
+     */
+    private static VirtualFile findSourceRoot(Module module, VirtualFile sourceSetDir) {
+        VirtualFile firstRoot = null;
+        for (VirtualFile root : ModuleRootManager.getInstance(module).getSourceRoots(JavaSourceRootType.SOURCE)) {
+            if (sourceSetDir.equals(root.getParent()) && DIR_JAVA.equals(root.getName())) {
+                return root;
+            }
+            if (firstRoot == null) {
+                firstRoot = root;
+            }
+        }
+        return firstRoot;
+    }
+
+    private static String buildSource(String packageName, String className, String rClass, LayoutXmlInfo layoutXmlInfo) {
+        // an id named m_root would take the name of the root field
+        String rootField = layoutXmlInfo.getIdByViewRefName("mRoot") == null ? "mRoot" : "mRootView";
+        StringBuilder fields = new StringBuilder();
+        StringBuilder lookups = new StringBuilder();
+        for (int i = 0; i < layoutXmlInfo.size(); i++) {
+            String viewRefName = layoutXmlInfo.getViewRefName(i);
+            String viewType = getViewType(layoutXmlInfo.getTag(i));
+            fields.append("    public final ").append(viewType).append(" ").append(viewRefName).append(";\n");
+            lookups.append("        this.").append(viewRefName).append(" = ")
+                    .append(CLASS_VIEW.equals(viewType) ? "" : "(" + viewType + ") ")
+                    .append("root.findViewById(").append(rClass).append(".id.").append(layoutXmlInfo.getId(i)).append(");\n");
+        }
+        return "package " + packageName + ";\n\n" +
+                "/**\n" +
+                " * Views of R.layout." + layoutXmlInfo.getLayoutName() + ", " + HOLDER_DOC + ".\n" +
+                " */\n" +
+                "public final class " + className + " {\n\n" +
+                fields +
+                "    private final " + CLASS_VIEW + " " + rootField + ";\n\n" +
+                "    public " + className + "(" + CLASS_VIEW + " root) {\n" +
+                "        this." + rootField + " = root;\n" +
+                lookups +
+                "    }\n\n" +
+                "    public " + CLASS_VIEW + " getRoot() {\n" +
+                "        return " + rootField + ";\n" +
+                "    }\n" +
+                "}\n";
+    }
+
+    /**
+     * Tags that are not view classes, such as include or fragment, are typed as View.
+     */
+    private static String getViewType(String tag) {
+        if ("include".equals(tag) || "fragment".equals(tag) || "merge".equals(tag) || "view".equals(tag)) {
+            return CLASS_VIEW;
+        }
+        return ViewUtil.getViewClassPath(tag);
+    }
+}
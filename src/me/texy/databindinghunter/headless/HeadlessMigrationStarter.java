@@ -0,0 +1,87 @@
+package me.texy.databindinghunter.headless;
+
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarterEx;
+import com.intellij.openapi.application.ex.ApplicationManagerEx;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import me.texy.databindinghunter.engine.MigrationEngine;
+import me.texy.databindinghunter.report.MigrationReport;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Runs the migration without UI, such as on CI:
+ * {@code idea.sh removeDatabinding <projectPath> [reportPath]}
+ */
+public class HeadlessMigrationStarter extends ApplicationStarterEx {
+
+    private static final String COMMAND_NAME = "removeDatabinding";
+
+    private String mProjectPath;
+    private String mReportPath;
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public boolean isHeadless() {
+        return true;
+    }
+
+    @Override
+    public void premain(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: " + COMMAND_NAME + " <projectPath> [reportPath]");
+            System.exit(1);
+        }
+        mProjectPath = new File(args[1]).getAbsolutePath();
+        mReportPath = args.length > 2 ? new File(args[2]).getAbsolutePath() : null;
+    }
+
+    @Override
+    public void main(String[] args) {
+        Project project = ProjectUtil.openOrImport(mProjectPath, null, false);
+        if (project == null) {
+            System.err.println("Can not open project " + mProjectPath);
+            System.exit(1);
+        }
+        // the engine waits for smart mode and runs write commands on the dispatch thread, so keep it free
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            int exitCode = 0;
+            MigrationReport report = new MigrationReport(project.getName());
+            try {
+                new MigrationEngine(project, report).run(new EmptyProgressIndicator());
+                ApplicationManager.getApplication().invokeAndWait(() -> ApplicationManager.getApplication().saveAll());
+                writeReport(report);
+                exitCode = report.getErrorCount() > 0 ? 2 : 0;
+            } catch (Throwable e) {
+                e.printStackTrace();
+                exitCode = 1;
+            }
+            exit(exitCode);
+        });
+    }
+
+    private void writeReport(MigrationReport report) throws IOException {
+        String json = report.toJson();
+        if (mReportPath == null) {
+            System.out.println(json);
+        } else {
+            FileUtil.writeToFile(new File(mReportPath), json);
+        }
+    }
+
+    private static void exit(int exitCode) {
+        if (exitCode == 0) {
+            ApplicationManager.getApplication().invokeLater(() -> ApplicationManagerEx.getApplicationEx().exit(true, true));
+        } else {
+            System.exit(exitCode);
+        }
+    }
+}
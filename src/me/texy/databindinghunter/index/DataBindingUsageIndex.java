@@ -0,0 +1,95 @@
+package me.texy.databindinghunter.index;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.ScalarIndexExtension;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Java files importing DataBindingUtil or a *Binding class, keyed by the imported name.
+ * Every such file is also stored under {@link #KEY_ANY} so all of them come back from one lookup.
+ */
+public class DataBindingUsageIndex extends ScalarIndexExtension<String> {
+
+    public static final ID<String, Void> NAME = ID.create("me.texy.databindinghunter.DataBindingUsageIndex");
+    public static final String KEY_ANY = "*";
+
+    private static final String CLASS_PATH_DATA_BINDING_UTIL = "android.databinding.DataBindingUtil";
+    private static final String BINDING_SUFFIX = "Binding";
+    private static final String BINDING_PACKAGE_SUFFIX = ".databinding.*";
+    private static final Pattern IMPORT_PATTERN = Pattern.compile("^\\s*import\\s+([\\w.]+(?:\\.\\*)?)\\s*;", Pattern.MULTILINE);
+
+    public static Collection<VirtualFile> getDataBindingFiles(GlobalSearchScope scope) {
+        return FileBasedIndex.getInstance().getContainingFiles(NAME, KEY_ANY, scope);
+    }
+
+    @NotNull
+    @Override
+    public ID<String, Void> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Void, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, Void> result = new HashMap<>();
+            Matcher matcher = IMPORT_PATTERN.matcher(inputData.getContentAsText());
+            while (matcher.find()) {
+                String importClass = matcher.group(1);
+                if (isDataBindingImport(importClass)) {
+                    result.put(importClass, null);
+                }
+            }
+            if (!result.isEmpty()) {
+                result.put(KEY_ANY, null);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Name check only, the import may still turn out not to be a binding class.
+     */
+    public static boolean isDataBindingImport(String importClass) {
+        return importClass.equals(CLASS_PATH_DATA_BINDING_UTIL)
+                || importClass.endsWith(BINDING_SUFFIX)
+                || importClass.endsWith(BINDING_PACKAGE_SUFFIX);
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
@@ -0,0 +1,105 @@
+package me.texy.databindinghunter.index;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.IOUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Indexed summary of one layout xml, ids stored as parallel arrays.
+ */
+public final class LayoutIdData {
+
+    public static final DataExternalizer<LayoutIdData> EXTERNALIZER = new DataExternalizer<LayoutIdData>() {
+        @Override
+        public void save(DataOutput out, LayoutIdData value) throws IOException {
+            out.writeBoolean(value.mDataBindingLayout);
+            IOUtil.writeUTF(out, value.mBindingClassName);
+            out.writeInt(value.mViewRefNames.length);
+            for (int i = 0; i < value.mViewRefNames.length; i++) {
+                IOUtil.writeUTF(out, value.mViewRefNames[i]);
+                IOUtil.writeUTF(out, value.mIds[i]);
+                IOUtil.writeUTF(out, value.mTags[i]);
+            }
+        }
+
+        @Override
+        public LayoutIdData read(DataInput in) throws IOException {
+            boolean dataBindingLayout = in.readBoolean();
+            String bindingClassName = IOUtil.readUTF(in);
+            int size = in.readInt();
+            String[] viewRefNames = new String[size];
+            String[] ids = new String[size];
+            String[] tags = new String[size];
+            for (int i = 0; i < size; i++) {
+                viewRefNames[i] = IOUtil.readUTF(in);
+                ids[i] = IOUtil.readUTF(in);
+                tags[i] = IOUtil.readUTF(in);
+            }
+            return new LayoutIdData(dataBindingLayout, bindingClassName, viewRefNames, ids, tags);
+        }
+    };
+
+    private final boolean mDataBindingLayout;
+    // as named by <data class="..."> or derived from the file name, not qualified yet
+    private final String mBindingClassName;
+    // viewRefNames[i] -> <ids[i],tags[i]>, such as demoTextView -> <demo_text,TextView>
+    private final String[] mViewRefNames;
+    private final String[] mIds;
+    private final String[] mTags;
+
+    public LayoutIdData(boolean dataBindingLayout, String bindingClassName, String[] viewRefNames, String[] ids, String[] tags) {
+        this.mDataBindingLayout = dataBindingLayout;
+        this.mBindingClassName = bindingClassName;
+        this.mViewRefNames = viewRefNames;
+        this.mIds = ids;
+        this.mTags = tags;
+    }
+
+    public boolean isDataBindingLayout() {
+        return mDataBindingLayout;
+    }
+
+    public String getBindingClassName() {
+        return mBindingClassName;
+    }
+
+    public int size() {
+        return mViewRefNames.length;
+    }
+
+    public String getViewRefName(int index) {
+        return mViewRefNames[index];
+    }
+
+    public String getId(int index) {
+        return mIds[index];
+    }
+
+    public String getTag(int index) {
+        return mTags[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LayoutIdData that = (LayoutIdData) o;
+        return mDataBindingLayout == that.mDataBindingLayout
+                && mBindingClassName.equals(that.mBindingClassName)
+                && Arrays.equals(mViewRefNames, that.mViewRefNames)
+                && Arrays.equals(mIds, that.mIds)
+                && Arrays.equals(mTags, that.mTags);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mBindingClassName.hashCode();
+        result = 31 * result + (mDataBindingLayout ? 1 : 0);
+        result = 31 * result + Arrays.hashCode(mViewRefNames);
+        return result;
+    }
+}
@@ -0,0 +1,189 @@
+package me.texy.databindinghunter.index;
+
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import me.texy.databindinghunter.LayoutXmlInfo;
+import me.texy.databindinghunter.util.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Layout name to {@link LayoutIdData}, so repeat runs read ids instead of parsing every layout xml again.
+ */
+public class LayoutIdIndex extends FileBasedIndexExtension<String, LayoutIdData> {
+
+    public static final ID<String, LayoutIdData> NAME = ID.create("me.texy.databindinghunter.LayoutIdIndex");
+
+    private static final String LAYOUT_DIR = "layout";
+    private static final String LAYOUT_DIR_QUALIFIED_PREFIX = "layout-";
+    private static final String TAG_LAYOUT = "layout";
+    private static final String TAG_DATA = "data";
+    private static final String ATTR_CLASS = "class";
+    private static final String BINDING_SUFFIX = "Binding";
+
+    /**
+     * @return indexed data of the layout file, or null if it is not indexed yet
+     */
+    public static LayoutIdData getLayoutIdData(Project project, VirtualFile layoutFile) {
+        List<LayoutIdData> values = FileBasedIndex.getInstance().getValues(
+                NAME, layoutFile.getNameWithoutExtension(), GlobalSearchScope.fileScope(project, layoutFile));
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Layout files, qualifier variants included, of the imported binding classes. The layout name is derived from the
+     * binding name, bindings renamed by {@code <data class="...">} need one pass over the index keys.
+     * Must be called in a read action.
+     */
+    public static Set<VirtualFile> findLayoutFiles(Collection<String> bindingImports, GlobalSearchScope scope) {
+        Set<VirtualFile> layoutFiles = new LinkedHashSet<>();
+        Set<String> renamedBindings = new HashSet<>();
+        for (String bindingImport : bindingImports) {
+            String bindingName = StringUtil.getClassNameFromPath(bindingImport);
+            // DataBindingUtil and wildcard imports
+            if (!bindingName.endsWith(BINDING_SUFFIX)) continue;
+
+            int found = layoutFiles.size();
+            for (String layoutName : StringUtil.getLayoutNamesFromBinding(bindingName)) {
+                collectLayoutFiles(layoutName, Collections.singleton(bindingName), scope, layoutFiles);
+            }
+            if (layoutFiles.size() == found) {
+                renamedBindings.add(bindingName);
+            }
+        }
+        if (!renamedBindings.isEmpty()) {
+            List<String> layoutNames = new ArrayList<>();
+            FileBasedIndex.getInstance().processAllKeys(NAME, layoutName -> {
+                layoutNames.add(layoutName);
+                return true;
+            }, scope, null);
+            for (String layoutName : layoutNames) {
+                collectLayoutFiles(layoutName, renamedBindings, scope, layoutFiles);
+            }
+        }
+        return layoutFiles;
+    }
+
+    private static void collectLayoutFiles(String layoutName, Set<String> bindingNames, GlobalSearchScope scope, Set<VirtualFile> layoutFiles) {
+        FileBasedIndex.getInstance().processValues(NAME, layoutName, null, (file, idData) -> {
+            if (bindingNames.contains(StringUtil.getClassNameFromPath(idData.getBindingClassName()))) {
+                layoutFiles.add(file);
+            }
+            return true;
+        }, scope);
+    }
+
+    /**
+     * res/layout and its qualifier variants such as res/layout-land or res/layout-sw600dp.
+     */
+    public static boolean isLayoutDir(VirtualFile dir) {
+        return dir != null && (LAYOUT_DIR.equals(dir.getName()) || dir.getName().startsWith(LAYOUT_DIR_QUALIFIED_PREFIX));
+    }
+
+    /**
+     * @return the class name from {@code <data class="...">} as written, or the name derived from the file name
+     */
+    public static String getBindingClassName(XmlTag rootTag, String layoutFileName) {
+        if (TAG_LAYOUT.equals(rootTag.getName())) {
+            XmlTag data = rootTag.findFirstSubTag(TAG_DATA);
+            String customClass = data == null ? null : data.getAttributeValue(ATTR_CLASS);
+            if (customClass != null && !customClass.trim().isEmpty()) {
+                return customClass.trim();
+            }
+        }
+        return StringUtil.getBindingNameFromLayout(layoutFileName);
+    }
+
+    @NotNull
+    @Override
+    public ID<String, LayoutIdData> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, LayoutIdData, FileContent> getIndexer() {
+        return inputData -> {
+            PsiFile psiFile = inputData.getPsiFile();
+            if (!(psiFile instanceof XmlFile)) {
+                return Collections.emptyMap();
+            }
+            XmlTag rootTag = ((XmlFile) psiFile).getRootTag();
+            if (rootTag == null) {
+                return Collections.emptyMap();
+            }
+            Map<String, String[]> bindingViewIds = LayoutXmlInfo.collectIds(psiFile);
+
+            int size = bindingViewIds.size();
+            String[] viewRefNames = new String[size];
+            String[] ids = new String[size];
+            String[] tags = new String[size];
+            int i = 0;
+            for (Map.Entry<String, String[]> entry : bindingViewIds.entrySet()) {
+                viewRefNames[i] = entry.getKey();
+                ids[i] = entry.getValue()[0];
+                tags[i] = entry.getValue()[1];
+                i++;
+            }
+            VirtualFile file = inputData.getFile();
+            LayoutIdData idData = new LayoutIdData(TAG_LAYOUT.equals(rootTag.getName()),
+                    getBindingClassName(rootTag, file.getName()), viewRefNames, ids, tags);
+            return Collections.singletonMap(file.getNameWithoutExtension(), idData);
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<LayoutIdData> getValueExternalizer() {
+        return LayoutIdData.EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(XmlFileType.INSTANCE) {
+            @Override
+            public boolean acceptInput(@NotNull VirtualFile file) {
+                return isLayoutDir(file.getParent());
+            }
+        };
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
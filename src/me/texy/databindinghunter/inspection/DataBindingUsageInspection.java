@@ -0,0 +1,120 @@
+package me.texy.databindinghunter.inspection;
+
+import com.intellij.codeInspection.BaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import me.texy.databindinghunter.BindingClassResolver;
+import me.texy.databindinghunter.index.DataBindingUsageIndex;
+import me.texy.databindinghunter.util.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Flags DataBindingUtil and binding class calls, binding declarations and their usages, with a quick-fix that
+ * migrates the whole file. The binding imports of a file are computed once per change of the file and resolved
+ * through a project-wide {@link BindingClassResolver}, so highlighting does not search classes per import.
+ */
+public class DataBindingUsageInspection extends BaseJavaLocalInspectionTool {
+
+    private static final String CLASS_PATH_DATA_BINDING_UTIL = "android.databinding.DataBindingUtil";
+    private static final String METHOD_BIND = "bind";
+    private static final String METHOD_INFLATE = "inflate";
+
+    @NotNull
+    @Override
+    public PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        if (!(holder.getFile() instanceof PsiJavaFile)) return PsiElementVisitor.EMPTY_VISITOR;
+
+        // <DemoBinding,com.demo.databinding.DemoBinding>
+        Map<String, String> dataBindingImports = getDataBindingImports((PsiJavaFile) holder.getFile());
+        if (dataBindingImports.isEmpty()) return PsiElementVisitor.EMPTY_VISITOR;
+
+        RemoveDataBindingQuickFix fix = new RemoveDataBindingQuickFix();
+        return new JavaElementVisitor() {
+            @Override
+            public void visitMethodCallExpression(PsiMethodCallExpression expression) {
+                PsiReferenceExpression methodExpression = expression.getMethodExpression();
+                String methodName = methodExpression.getReferenceName();
+                if (!METHOD_BIND.equals(methodName) && !METHOD_INFLATE.equals(methodName)) return;
+
+                PsiExpression qualifier = methodExpression.getQualifierExpression();
+                if (qualifier instanceof PsiReferenceExpression
+                        && dataBindingImports.containsKey(((PsiReferenceExpression) qualifier).getReferenceName())) {
+                    holder.registerProblem(expression, "Data binding call", fix);
+                }
+            }
+
+            @Override
+            public void visitField(PsiField field) {
+                checkDeclaration(field.getTypeElement());
+            }
+
+            @Override
+            public void visitLocalVariable(PsiLocalVariable variable) {
+                checkDeclaration(variable.getTypeElement());
+            }
+
+            @Override
+            public void visitReferenceExpression(PsiReferenceExpression expression) {
+                // binding.xxx and binding.getRoot(), the declaration is flagged already
+                PsiExpression qualifier = expression.getQualifierExpression();
+                if (!(qualifier instanceof PsiReferenceExpression)) return;
+
+                PsiType qualifierType = qualifier.getType();
+                if (qualifierType != null && isBindingType(qualifierType.getPresentableText())) {
+                    holder.registerProblem(expression, "Data binding usage", ProblemHighlightType.INFORMATION, fix);
+                }
+            }
+
+            private void checkDeclaration(PsiTypeElement typeElement) {
+                if (typeElement != null && isBindingType(typeElement.getType().getPresentableText())) {
+                    holder.registerProblem(typeElement, "Data binding declaration", fix);
+                }
+            }
+
+            private boolean isBindingType(String typeName) {
+                String qualifiedName = dataBindingImports.get(typeName);
+                return qualifiedName != null && !CLASS_PATH_DATA_BINDING_UTIL.equals(qualifiedName);
+            }
+        };
+    }
+
+    /**
+     * Cached on the file, dropped when it or the project's java structure changes.
+     */
+    private static Map<String, String> getDataBindingImports(PsiJavaFile file) {
+        return CachedValuesManager.getCachedValue(file, () -> CachedValueProvider.Result.create(
+                computeDataBindingImports(file), file, PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT));
+    }
+
+    private static Map<String, String> computeDataBindingImports(PsiJavaFile file) {
+        PsiImportList importList = file.getImportList();
+        if (importList == null) return Collections.emptyMap();
+
+        BindingClassResolver resolver = getResolver(file.getProject());
+        Map<String, String> dataBindingImports = new HashMap<>();
+        for (PsiImportStatement importStatement : importList.getImportStatements()) {
+            String importClass = importStatement.getQualifiedName();
+            // the name check is what DataBindingUsageIndex keys files by, other imports are never resolved
+            if (importClass == null || !DataBindingUsageIndex.isDataBindingImport(importClass)) continue;
+
+            if (importClass.equals(CLASS_PATH_DATA_BINDING_UTIL) || resolver.isDataBindingClass(importClass)) {
+                dataBindingImports.put(StringUtil.getClassNameFromPath(importClass), importClass);
+            }
+        }
+        return dataBindingImports;
+    }
+
+    private static BindingClassResolver getResolver(Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () -> CachedValueProvider.Result.create(
+                new BindingClassResolver(project), PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT));
+    }
+}
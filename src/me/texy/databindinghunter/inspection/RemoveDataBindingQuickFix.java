@@ -0,0 +1,85 @@
+package me.texy.databindinghunter.inspection;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import me.texy.databindinghunter.BindingClassResolver;
+import me.texy.databindinghunter.BindingLayoutTable;
+import me.texy.databindinghunter.FileEditBatch;
+import me.texy.databindinghunter.JavaBindingHunter;
+import me.texy.databindinghunter.engine.MigrationEngine;
+import me.texy.databindinghunter.report.MigrationReport;
+import me.texy.databindinghunter.util.MessageUtil;
+import me.texy.databindinghunter.util.ReadActionUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+
+/**
+ * Runs the {@link JavaBindingHunter} rewrite on one java file. Only the layouts its module sees are scanned,
+ * the layouts themselves are left for the project run: a java file without bindings works with wrapped layouts too.
+ */
+public class RemoveDataBindingQuickFix implements LocalQuickFix {
+
+    private static final String NAME = "Remove DataBinding from this file";
+
+    @NotNull
+    @Override
+    public String getFamilyName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        PsiFile psiFile = descriptor.getPsiElement().getContainingFile();
+        if (!(psiFile instanceof PsiJavaFile)) return;
+
+        PsiJavaFile javaFile = (PsiJavaFile) psiFile;
+        Module module = ModuleUtilCore.findModuleForPsiElement(javaFile);
+        if (module == null) return;
+
+        MigrationReport report = new MigrationReport(javaFile.getName());
+        ProgressManager.getInstance().run(new Task.Modal(project, "Removing databinding from " + javaFile.getName(), true) {
+            private BindingLayoutTable mBindingLayouts;
+            private Set<String> mDataBindingImports;
+
+            @Override
+            public void run(@NotNull ProgressIndicator progressIndicator) {
+                mBindingLayouts = new MigrationEngine(project, report).scanVisibleLayouts(progressIndicator, module);
+                mDataBindingImports = ReadActionUtil.computeCancellable(progressIndicator, () ->
+                        JavaBindingHunter.findDataBindingImports(javaFile, new BindingClassResolver(project, mBindingLayouts)));
+            }
+
+            @Override
+            public void onSuccess() {
+                if (!javaFile.isValid() || mDataBindingImports.isEmpty()) return;
+
+                WriteCommandAction.runWriteCommandAction(project, NAME, null, () -> {
+                    try {
+                        FileEditBatch editBatch = new FileEditBatch(javaFile);
+                        for (PsiClass psiClass : javaFile.getClasses()) {
+                            new JavaBindingHunter(psiClass, mBindingLayouts, report, editBatch).hunt(mDataBindingImports);
+                        }
+                        JavaBindingHunter.commitEdits(editBatch, report);
+                    } catch (Exception e) {
+                        MessageUtil.showErrorMsg(project, javaFile.getName(), e);
+                    }
+                }, javaFile);
+            }
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package me.texy.databindinghunter.preview;
+
+import com.intellij.openapi.vfs.VirtualFile;
+
+/**
+ * Text of one file before and after the migration, nothing is written.
+ */
+public final class FileChange {
+
+    private final VirtualFile mFile;
+    private final String mBefore;
+    private final String mAfter;
+
+    public FileChange(VirtualFile file, String before, String after) {
+        this.mFile = file;
+        this.mBefore = before;
+        this.mAfter = after;
+    }
+
+    public VirtualFile getFile() {
+        return mFile;
+    }
+
+    public String getBefore() {
+        return mBefore;
+    }
+
+    public String getAfter() {
+        return mAfter;
+    }
+
+    public boolean isChanged() {
+        return !mBefore.equals(mAfter);
+    }
+}
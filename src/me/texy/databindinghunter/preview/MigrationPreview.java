@@ -0,0 +1,234 @@
+package me.texy.databindinghunter.preview;
+
+import com.intellij.diff.DiffContentFactory;
+import com.intellij.diff.DiffDialogHints;
+import com.intellij.diff.DiffManager;
+import com.intellij.diff.chains.SimpleDiffRequestChain;
+import com.intellij.diff.requests.DiffRequest;
+import com.intellij.diff.requests.SimpleDiffRequest;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.testFramework.LightVirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import me.texy.databindinghunter.FileEditBatch;
+import me.texy.databindinghunter.JavaBindingHunter;
+import me.texy.databindinghunter.LayoutXmlHunter;
+import me.texy.databindinghunter.LayoutXmlInfo;
+import me.texy.databindinghunter.LayoutXmlStreamRewriter;
+import me.texy.databindinghunter.engine.JavaRewritePlan;
+import me.texy.databindinghunter.engine.LayoutRewritePlan;
+import me.texy.databindinghunter.engine.MigrationEngine;
+import me.texy.databindinghunter.engine.MigrationPlan;
+import me.texy.databindinghunter.engine.ViewHolderGenerator;
+import me.texy.databindinghunter.report.MigrationReport;
+import me.texy.databindinghunter.settings.MigrationSettings;
+import me.texy.databindinghunter.util.ReadActionUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Dry run: the hunters work on non-physical copies of the planned files inside read actions, so the write lock
+ * is never taken and several files are previewed at a time. Java files go through the backend the migration
+ * would use, text edits or the psi hunters, with the view holders the migration would generate. Usages outside a java
+ * file are not previewed, the copy's fields have no references in the project.
+ */
+public class MigrationPreview {
+
+    private static final Logger LOG = Logger.getInstance(MigrationPreview.class);
+
+    private static final int MAX_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private final Project mProject;
+    private final MigrationReport mReport;
+    private final boolean mViewHolderOutput;
+
+    public MigrationPreview(Project project, MigrationReport report) {
+        this.mProject = project;
+        this.mReport = report;
+        this.mViewHolderOutput = MigrationSettings.getInstance().isViewHolderOutput();
+    }
+
+    /**
+     * @return changed files, layouts first, in the order the migration would apply them
+     */
+    public List<FileChange> compute(@NotNull ProgressIndicator progressIndicator) {
+        List<MigrationPlan> plans = new MigrationEngine(mProject, mReport).analyze(progressIndicator);
+        List<String> names = new ArrayList<>();
+        List<Callable<FileChange>> tasks = new ArrayList<>();
+        Map<String, String> viewHolders = new HashMap<>();
+        for (MigrationPlan plan : plans) {
+            for (LayoutRewritePlan layoutPlan : plan.getLayoutPlans()) {
+                names.add(layoutPlan.getPath());
+                tasks.add(() -> previewLayout(progressIndicator, layoutPlan));
+            }
+            if (mViewHolderOutput) {
+                // holders are written before the java files of their module, as the migration does
+                Map<String, FileChange> holderChanges = ReadActionUtil.computeCancellable(progressIndicator, () -> previewViewHolders(plan, viewHolders));
+                for (Map.Entry<String, FileChange> holderChange : holderChanges.entrySet()) {
+                    viewHolders.put(holderChange.getKey(), ViewHolderGenerator.getHolderName(holderChange.getKey()));
+                    FileChange change = holderChange.getValue();
+                    if (change != null) {
+                        names.add(change.getFile().getPath());
+                        tasks.add(() -> change);
+                    }
+                }
+            }
+            for (JavaRewritePlan javaPlan : plan.getJavaPlans()) {
+                names.add(javaPlan.getPath());
+                tasks.add(() -> previewJava(progressIndicator, plan, javaPlan, viewHolders));
+            }
+        }
+
+        List<FileChange> changes = new ArrayList<>();
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("DataBindingHunter preview", MAX_THREADS);
+        try {
+            List<Future<FileChange>> futures = new ArrayList<>();
+            for (Callable<FileChange> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                progressIndicator.setFraction((double) i / futures.size());
+                try {
+                    FileChange change = futures.get(i).get();
+                    if (change != null && change.isChanged()) {
+                        changes.add(change);
+                    }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof ProcessCanceledException) {
+                        throw (ProcessCanceledException) e.getCause();
+                    }
+                    Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    LOG.warn("Exception threw when preview " + names.get(i), cause);
+                    mReport.addError(names.get(i), cause);
+                } catch (InterruptedException e) {
+                    throw new ProcessCanceledException(e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return changes;
+    }
+
+    private FileChange previewLayout(@NotNull ProgressIndicator progressIndicator, LayoutRewritePlan layoutPlan) {
+        VirtualFile layoutFile = layoutPlan.getVirtualFile();
+        if (layoutFile == null) return null;
+
+        if (LayoutXmlStreamRewriter.canRewrite(layoutFile)) {
+            // the document, as the migration rewrites it, so unsaved edits show up in the preview
+            String text = ReadActionUtil.computeCancellable(progressIndicator, () -> {
+                Document document = FileDocumentManager.getInstance().getDocument(layoutFile);
+                return document == null ? null : document.getText();
+            });
+            LayoutXmlStreamRewriter.Result result = text == null ? null : LayoutXmlStreamRewriter.rewrite(text);
+            if (result != null) {
+                return new FileChange(layoutFile, text, result.getText());
+            }
+        }
+        return ReadActionUtil.computeCancellable(progressIndicator, () -> {
+            PsiFile xmlFile = layoutPlan.getXmlFile();
+            if (xmlFile == null) return null;
+
+            PsiFile copy = (PsiFile) xmlFile.copy();
+            new LayoutXmlHunter(copy).hunt();
+            return new FileChange(layoutFile, xmlFile.getText(), copy.getText());
+        });
+    }
+
+    /**
+     * Holders the migration would generate or regenerate for the plan's bindings that have none in viewHolders yet.
+     *
+     * @return binding -> change of its holder, null for a holder that is up to date. Bindings whose holder name is
+     * taken by another class or whose holder can not be written are left out.
+     */
+    private Map<String, FileChange> previewViewHolders(MigrationPlan plan, Map<String, String> viewHolders) {
+        Map<String, FileChange> changes = new LinkedHashMap<>();
+        for (JavaRewritePlan javaPlan : plan.getJavaPlans()) {
+            for (String dataBindingImport : javaPlan.getDataBindingImports()) {
+                LayoutXmlInfo layoutXmlInfo = plan.getBindingLayouts().get(dataBindingImport);
+                if (viewHolders.containsKey(dataBindingImport) || changes.containsKey(dataBindingImport)
+                        || !ViewHolderGenerator.canGenerate(dataBindingImport, layoutXmlInfo)) continue;
+
+                PsiClass existing = ViewHolderGenerator.findHolder(mProject, dataBindingImport);
+                if (existing != null && !ViewHolderGenerator.isGenerated(existing)) continue;
+
+                if (existing != null && ViewHolderGenerator.hasViewsOf(existing, layoutXmlInfo)) {
+                    changes.put(dataBindingImport, null);
+                    continue;
+                }
+                PsiJavaFile holderFile = ViewHolderGenerator.createHolderFile(mProject, dataBindingImport, layoutXmlInfo);
+                if (holderFile == null) continue;
+
+                CodeStyleManager.getInstance(mProject).reformat(JavaCodeStyleManager.getInstance(mProject).shortenClassReferences(holderFile));
+                VirtualFile file = existing == null ? null : existing.getContainingFile().getVirtualFile();
+                changes.put(dataBindingImport, file == null
+                        ? new FileChange(new LightVirtualFile(holderFile.getName(), JavaFileType.INSTANCE, ""), "", holderFile.getText())
+                        : new FileChange(file, existing.getContainingFile().getText(), holderFile.getText()));
+            }
+        }
+        return changes;
+    }
+
+    private FileChange previewJava(@NotNull ProgressIndicator progressIndicator, MigrationPlan plan, JavaRewritePlan javaPlan,
+                                   Map<String, String> viewHolders) {
+        return ReadActionUtil.computeCancellable(progressIndicator, () -> {
+            PsiJavaFile javaFile = javaPlan.getJavaFile();
+            if (javaFile == null) return null;
+
+            // the backend the migration would pick for the file
+            if (javaPlan.usesTextEdits(viewHolders.keySet())) {
+                String after = javaPlan.getTextEdits().applyTo(javaFile.getVirtualFile(), javaFile.getText());
+                if (after != null) {
+                    return new FileChange(javaFile.getVirtualFile(), javaFile.getText(), after);
+                }
+            }
+            PsiJavaFile copy = (PsiJavaFile) javaFile.copy();
+            FileEditBatch editBatch = new FileEditBatch(copy);
+            for (PsiClass psiClass : copy.getClasses()) {
+                new JavaBindingHunter(psiClass, plan.getBindingLayouts(), mReport, editBatch, viewHolders).hunt(javaPlan.getDataBindingImports());
+            }
+            JavaBindingHunter.commitEdits(editBatch, mReport);
+            return new FileChange(javaFile.getVirtualFile(), javaFile.getText(), copy.getText());
+        });
+    }
+
+    /**
+     * One diff per changed file, may be called from any thread.
+     */
+    public static void show(Project project, List<FileChange> changes) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (project.isDisposed()) return;
+
+            DiffContentFactory contentFactory = DiffContentFactory.getInstance();
+            List<DiffRequest> requests = new ArrayList<>();
+            for (FileChange change : changes) {
+                requests.add(new SimpleDiffRequest(change.getFile().getPresentableUrl(),
+                        contentFactory.create(project, change.getBefore(), change.getFile().getFileType()),
+                        contentFactory.create(project, change.getAfter(), change.getFile().getFileType()),
+                        "Current", "After removing databinding"));
+            }
+            DiffManager.getInstance().showDiff(project, new SimpleDiffRequestChain(requests), DiffDialogHints.DEFAULT);
+        });
+    }
+}
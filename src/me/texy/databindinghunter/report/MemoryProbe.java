@@ -0,0 +1,112 @@
+package me.texy.databindinghunter.report;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Whole-process allocation and heap readings for phase timers.
+ */
+public class MemoryProbe {
+
+    private static final Set<String> HEAP_POOLS = new HashSet<>();
+    // heap freed by every collection since this class was loaded
+    private static final AtomicLong sCollectedBytes = new AtomicLong();
+
+    static {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                HEAP_POOLS.add(pool.getName());
+            }
+        }
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                ((NotificationEmitter) collector).addNotificationListener(MemoryProbe::onCollection, null, null);
+            }
+        }
+    }
+
+    /**
+     * Bytes allocated by the whole process since this class was loaded: heap in use plus heap freed by collections,
+     * so threads that ended in between still count. Collections are reported asynchronously, a reading taken right
+     * after one may miss it.
+     */
+    public static long allocatedBytes() {
+        return usedHeapBytes() + sCollectedBytes.get();
+    }
+
+    private static void onCollection(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+
+        GcInfo gcInfo = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()).getGcInfo();
+        long collected = sumHeap(gcInfo.getMemoryUsageBeforeGc()) - sumHeap(gcInfo.getMemoryUsageAfterGc());
+        if (collected > 0) {
+            sCollectedBytes.addAndGet(collected);
+        }
+    }
+
+    private static long sumHeap(Map<String, MemoryUsage> usageByPool) {
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> usage : usageByPool.entrySet()) {
+            if (HEAP_POOLS.contains(usage.getKey())) {
+                used += usage.getValue().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static long usedHeapBytes() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Peaks are global to the JVM, call it only from the thread coordinating the phases, never while two overlap.
+     */
+    public static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Sum of the heap pools' peaks since the last {@link #resetPeakHeap()}, an upper bound of the real peak.
+     */
+    public static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Heap left as of the last collection of each heap pool, as a fraction of the maximum heap. Garbage allocated
+     * since does not count as used, so the reading only drops when collections stop freeing memory.
+     */
+    public static double freeHeapFraction() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage collectionUsage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (collectionUsage != null) {
+                used += collectionUsage.getUsed();
+            }
+        }
+        return 1.0 - (double) used / Runtime.getRuntime().maxMemory();
+    }
+}
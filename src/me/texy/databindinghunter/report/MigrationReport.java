@@ -0,0 +1,253 @@
+package me.texy.databindinghunter.report;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-phase timings, per-step timers and counters, per-file durations and errors of one migration run,
+ * serializable as json. Safe to record into from several threads.
+ */
+public class MigrationReport {
+
+    // layout scan and java analysis of all modules, which overlap
+    public static final String PHASE_ANALYSIS = "analysis";
+    public static final String PHASE_LAYOUT_SCAN = "layoutScan";
+    public static final String PHASE_JAVA_ANALYSIS = "javaAnalysis";
+    public static final String PHASE_LAYOUT_REWRITE = "layoutRewrite";
+    public static final String PHASE_JAVA_REWRITE = "javaRewrite";
+
+    public static final String STEP_IMPORT_ANALYSIS = "importAnalysis";
+    public static final String STEP_REFERENCE_SEARCH = "referenceSearch";
+    public static final String STEP_REWRITE = "rewrite";
+    public static final String STEP_EDIT_COMMIT = "editCommit";
+    public static final String STEP_TEXT_EDIT_PLANNING = "textEditPlanning";
+    public static final String STEP_VIEW_HOLDER_GENERATION = "viewHolderGeneration";
+
+    private final String project;
+    private long totalMillis;
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+    private final List<String> migratedClasses = new ArrayList<>();
+    private final List<FileRecord> files = new ArrayList<>();
+    private final List<Error> errors = new ArrayList<>();
+
+    public MigrationReport(String project) {
+        this.project = project;
+    }
+
+    /**
+     * Wall time, allocations and peak heap. Must be started from the thread coordinating the run, and no other
+     * measured phase may run at the same time, the readings are those of the whole process.
+     */
+    public PhaseTimer startPhase(String name) {
+        return new PhaseTimer(name, true);
+    }
+
+    /**
+     * Wall time only, for a phase with several runs at once, such as one per module. Their allocations and peak heap
+     * are in the phase measured around them.
+     */
+    public PhaseTimer startOverlappingPhase(String name) {
+        return new PhaseTimer(name, false);
+    }
+
+    public void addPhase(String name, long millis, int files) {
+        addPhase(name, millis, files, 0, 0);
+    }
+
+    public synchronized void addPhase(String name, long millis, int files, long allocatedBytes, long peakHeapBytes) {
+        Phase phase = phases.get(name);
+        if (phase == null) {
+            phase = new Phase();
+            phases.put(name, phase);
+        }
+        phase.millis += millis;
+        phase.files += files;
+        phase.filesPerSecond = phase.millis == 0 ? phase.files : phase.files * 1000.0 / phase.millis;
+        phase.allocatedBytes += allocatedBytes;
+        phase.peakHeapBytes = Math.max(phase.peakHeapBytes, peakHeapBytes);
+    }
+
+    /**
+     * Count one execution of a step and add its duration to the step timer.
+     */
+    public synchronized void addStep(String name, long nanos) {
+        Step step = steps.get(name);
+        if (step == null) {
+            step = new Step();
+            steps.put(name, step);
+        }
+        step.count++;
+        step.nanos += nanos;
+    }
+
+    public synchronized void addFileDuration(String file, String phase, long millis) {
+        files.add(new FileRecord(file, phase, millis));
+    }
+
+    public synchronized void addMigratedClass(String className) {
+        migratedClasses.add(className);
+    }
+
+    public synchronized void addError(String fileName, Exception e) {
+        StringBuilder stackTrace = new StringBuilder();
+        for (int i = 0; i < Math.min(5, e.getStackTrace().length); i++) {
+            stackTrace.append(e.getStackTrace()[i]).append("\n");
+        }
+        errors.add(new Error(fileName, String.valueOf(e.getMessage()), stackTrace.toString()));
+    }
+
+    public synchronized void setTotalMillis(long totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public synchronized long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public synchronized List<String> getMigratedClasses() {
+        return new ArrayList<>(migratedClasses);
+    }
+
+    public synchronized int getErrorCount() {
+        return errors.size();
+    }
+
+    /**
+     * @return wall time of the phase summed over its runs, -1 if it did not run
+     */
+    public synchronized long getPhaseMillis(String name) {
+        Phase phase = phases.get(name);
+        return phase == null ? -1 : phase.millis;
+    }
+
+    public synchronized int getPhaseFiles(String name) {
+        Phase phase = phases.get(name);
+        return phase == null ? 0 : phase.files;
+    }
+
+    public synchronized List<FileRecord> getFileRecords() {
+        return new ArrayList<>(files);
+    }
+
+    public synchronized List<Error> getErrors() {
+        return new ArrayList<>(errors);
+    }
+
+    /**
+     * One line per phase and step, such as "javaRewrite 1200ms 40 files".
+     */
+    public synchronized String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, Phase> entry : phases.entrySet()) {
+            summary.append(entry.getKey()).append(" ").append(entry.getValue().millis).append("ms ")
+                    .append(entry.getValue().files).append(" files\n");
+        }
+        for (Map.Entry<String, Step> entry : steps.entrySet()) {
+            summary.append(entry.getKey()).append(" ").append(entry.getValue().nanos / 1000000).append("ms ")
+                    .append(entry.getValue().count).append(" times\n");
+        }
+        return summary.toString();
+    }
+
+    public synchronized String toJson() {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        return gson.toJson(this);
+    }
+
+    /**
+     * Measures wall time, and unless the phase overlaps others allocations and peak heap, between start and
+     * {@link #stop(int)}.
+     */
+    public class PhaseTimer {
+        private final String mName;
+        private final boolean mMeasureMemory;
+        private final long mStartMillis;
+        private final long mStartAllocatedBytes;
+
+        private PhaseTimer(String name, boolean measureMemory) {
+            this.mName = name;
+            this.mMeasureMemory = measureMemory;
+            this.mStartAllocatedBytes = measureMemory ? MemoryProbe.allocatedBytes() : 0;
+            if (measureMemory) {
+                MemoryProbe.resetPeakHeap();
+            }
+            this.mStartMillis = System.currentTimeMillis();
+        }
+
+        public void stop(int files) {
+            long millis = System.currentTimeMillis() - mStartMillis;
+            if (mMeasureMemory) {
+                addPhase(mName, millis, files, MemoryProbe.allocatedBytes() - mStartAllocatedBytes, MemoryProbe.peakHeapBytes());
+            } else {
+                addPhase(mName, millis, files);
+            }
+        }
+    }
+
+    private static class Phase {
+        private long millis;
+        private int files;
+        private double filesPerSecond;
+        private long allocatedBytes;
+        private long peakHeapBytes;
+    }
+
+    private static class Step {
+        private int count;
+        private long nanos;
+    }
+
+    public static class FileRecord {
+        private final String file;
+        private final String phase;
+        private final long millis;
+
+        private FileRecord(String file, String phase, long millis) {
+            this.file = file;
+            this.phase = phase;
+            this.millis = millis;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public String getPhase() {
+            return phase;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+
+    public static class Error {
+        private final String file;
+        private final String message;
+        private final String stackTrace;
+
+        private Error(String file, String message, String stackTrace) {
+            this.file = file;
+            this.message = message;
+            this.stackTrace = stackTrace;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public String getStackTrace() {
+            return stackTrace;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package me.texy.databindinghunter.report;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Non-modal view of the last {@link MigrationReport}, files sorted by the slowest first.
+ */
+public class MigrationResultsPanel extends JPanel {
+
+    private static final Logger LOG = Logger.getInstance(MigrationResultsPanel.class);
+
+    private static final String[] COLUMNS = {"File", "Phase", "ms", "Error"};
+    private static final int COLUMN_MILLIS = 2;
+    private static final String PHASE_ERROR = "error";
+
+    private final Project mProject;
+    private final JBLabel mSummary = new JBLabel();
+    private final DefaultTableModel mModel = new DefaultTableModel(COLUMNS, 0) {
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnIndex == COLUMN_MILLIS ? Long.class : String.class;
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+    private MigrationReport mReport;
+
+    public MigrationResultsPanel(Project project) {
+        super(new BorderLayout());
+        this.mProject = project;
+
+        JBTable table = new JBTable(mModel);
+        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(mModel);
+        sorter.setSortKeys(Collections.singletonList(new RowSorter.SortKey(COLUMN_MILLIS, SortOrder.DESCENDING)));
+        table.setRowSorter(sorter);
+
+        JButton exportButton = new JButton("Export JSON...");
+        exportButton.addActionListener(e -> exportJson());
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.add(mSummary, BorderLayout.CENTER);
+        header.add(exportButton, BorderLayout.EAST);
+        add(header, BorderLayout.NORTH);
+        add(new JBScrollPane(table), BorderLayout.CENTER);
+    }
+
+    public void setReport(MigrationReport report) {
+        this.mReport = report;
+        mSummary.setText("<html>" + report.getMigratedClasses().size() + " classes migrated, " + report.getErrorCount()
+                + " errors, " + report.getTotalMillis() + "ms<br>" + report.getSummary().replace("\n", "<br>") + "</html>");
+        mModel.setRowCount(0);
+        for (MigrationReport.FileRecord record : report.getFileRecords()) {
+            mModel.addRow(new Object[]{record.getFile(), record.getPhase(), record.getMillis(), ""});
+        }
+        for (MigrationReport.Error error : report.getErrors()) {
+            mModel.addRow(new Object[]{error.getFile(), PHASE_ERROR, 0L, error.getMessage()});
+        }
+    }
+
+    private void exportJson() {
+        if (mReport == null) return;
+
+        FileSaverDescriptor descriptor = new FileSaverDescriptor("Export Migration Report", "", "json");
+        VirtualFileWrapper wrapper = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, mProject)
+                .save(null, "databinding-migration.json");
+        if (wrapper == null) return;
+        try {
+            FileUtil.writeToFile(wrapper.getFile(), mReport.toJson());
+        } catch (IOException e) {
+            LOG.warn("Can not export migration report", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package me.texy.databindinghunter.report;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import org.jetbrains.annotations.NotNull;
+
+public class MigrationResultsToolWindowFactory implements ToolWindowFactory {
+
+    public static final String TOOL_WINDOW_ID = "DataBinding Hunter";
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        Content content = ContentFactory.SERVICE.getInstance().createContent(new MigrationResultsPanel(project), "", false);
+        toolWindow.getContentManager().addContent(content);
+    }
+
+    /**
+     * Show the report in the tool window, can be called from any thread.
+     */
+    public static void showReport(Project project, MigrationReport report) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (project.isDisposed()) return;
+
+            ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(TOOL_WINDOW_ID);
+            if (toolWindow == null) return;
+            toolWindow.show(() -> {
+                Content content = toolWindow.getContentManager().getContent(0);
+                if (content != null && content.getComponent() instanceof MigrationResultsPanel) {
+                    ((MigrationResultsPanel) content.getComponent()).setReport(report);
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package me.texy.databindinghunter.settings;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import org.jetbrains.annotations.NotNull;
+
+@State(name = "DataBindingHunterSettings", storages = @Storage("databindinghunter.xml"))
+public class MigrationSettings implements PersistentStateComponent<MigrationSettings.State> {
+
+    private State mState = new State();
+
+    public static MigrationSettings getInstance() {
+        return ServiceManager.getService(MigrationSettings.class);
+    }
+
+    @NotNull
+    @Override
+    public State getState() {
+        return mState;
+    }
+
+    @Override
+    public void loadState(State state) {
+        this.mState = state;
+    }
+
+    /**
+     * Files applied per write command, which is also the unit of undo and of the checkpoint journal.
+     */
+    public int getChunkSize() {
+        return Math.max(1, mState.chunkSize);
+    }
+
+    /**
+     * Rewrite layouts by streaming their text instead of through PSI, files that can not be streamed still use PSI.
+     */
+    public boolean isStreamingLayoutRewrite() {
+        return mState.streamingLayoutRewrite;
+    }
+
+    /**
+     * Rewrite java files with text edits planned during analysis instead of psi replacements,
+     * files the planner can not handle still use psi.
+     */
+    public boolean isTextEditJavaRewrite() {
+        return mState.textEditJavaRewrite;
+    }
+
+    /**
+     * Workers analysing java files, the number of cores unless configured.
+     */
+    public int getJavaAnalysisThreads() {
+        return mState.javaAnalysisThreads > 0 ? mState.javaAnalysisThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Generate one view holder class per layout, with the fields of its binding, and migrate binding usages to it
+     * instead of to findViewById calls, so each view is looked up once per inflate.
+     */
+    public boolean isViewHolderOutput() {
+        return mState.viewHolderOutput;
+    }
+
+    /**
+     * Drop the plans of every applied batch, and throttle while the heap left after collections is low, so a run over
+     * a very large project fits a normal IDE heap. Off by default, throttled runs are slower.
+     */
+    public boolean isMemoryBounded() {
+        return mState.memoryBounded;
+    }
+
+    /**
+     * Heap left after the last collections, in percent of the maximum heap, below which a memory-bounded run shrinks
+     * its batches and analyses one java file at a time.
+     */
+    public int getMinFreeHeapPercent() {
+        return Math.max(0, Math.min(90, mState.minFreeHeapPercent));
+    }
+
+    public static class State {
+        public int chunkSize = 20;
+        public boolean streamingLayoutRewrite = false;
+        public boolean textEditJavaRewrite = false;
+        // 0 for the number of cores
+        public int javaAnalysisThreads = 0;
+        public boolean memoryBounded = false;
+        public int minFreeHeapPercent = 20;
+        public boolean viewHolderOutput = false;
+    }
+}
@@ -0,0 +1,32 @@
+package me.texy.databindinghunter.util;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+
+public class MessageUtil {
+
+    private static final Logger LOG = Logger.getInstance(MessageUtil.class);
+
+    public static void showErrorMsg(Project project, String fileName, Exception e) {
+        if (ApplicationManager.getApplication().isHeadlessEnvironment()) {
+            LOG.warn("Exception threw when handle " + fileName, e);
+            return;
+        }
+        StringBuilder message = new StringBuilder(e.getMessage() + "\n");
+        for (int i = 0; i < Math.min(5, e.getStackTrace().length); i++) {
+            message.append(e.getStackTrace()[i]).append("\n");
+        }
+        ApplicationManager.getApplication().invokeLater(() ->
+                Messages.showErrorDialog(project, message.toString(), "Exception threw when handle " + fileName));
+    }
+
+    public static void showInfoMsg(Project project, String message) {
+        if (ApplicationManager.getApplication().isHeadlessEnvironment()) {
+            LOG.info(message);
+            return;
+        }
+        ApplicationManager.getApplication().invokeLater(() -> Messages.showInfoMessage(project, message, "Remove DataBinding"));
+    }
+}
@@ -0,0 +1,25 @@
+package me.texy.databindinghunter.util;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Ref;
+import org.jetbrains.annotations.NotNull;
+
+public class ReadActionUtil {
+
+    /**
+     * Run computable in a read action which gives way to pending write actions,
+     * retrying until it completes or the indicator is canceled.
+     */
+    public static <T> T computeCancellable(@NotNull ProgressIndicator indicator, @NotNull Computable<T> computable) {
+        Ref<T> result = Ref.create();
+        while (true) {
+            indicator.checkCanceled();
+            if (ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(() -> result.set(computable.compute()), indicator)) {
+                return result.get();
+            }
+            ProgressIndicatorUtils.yieldToPendingWriteActions();
+        }
+    }
+}
@@ -2,6 +2,9 @@ package me.texy.databindinghunter.util;
 
 import com.google.common.base.CaseFormat;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 public class StringUtil {
     public static String getClassNameFromPath(String path) {
         int lastDotIndex = path.lastIndexOf('.');
@@ -11,19 +14,40 @@ public class StringUtil {
         return path;
     }
 
-    public static String formatCamelToUnderline(String camel) {
-        return contactLastNumWithUnderline(CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, camel));
+    // we can not calculate the camel to underline,such as Demo01 maybe demo_01 or demo_0_1,but we can do it reversely.
+    public static String getBindingNameFromLayout(String xmlName) {
+        int extensionIndex = xmlName.lastIndexOf('.');
+        return formatUnderlineToCamel(extensionIndex == -1 ? xmlName : xmlName.substring(0, extensionIndex)) + "Binding";
     }
 
-    public static String getClassPkgFromAbsDir(String path) {
-        int index = path.indexOf("/src/main/java");
-        if (index != -1) {
-            return path.substring(index + 14)
-                    .replaceAll(".java", "")
-                    .replaceFirst("/", "")
-                    .replaceAll("/", ".");
+    /**
+     * DemoBinding -> demo, Demo01Binding -> demo01 and demo_01, as the layout name can not be told apart.
+     */
+    public static Set<String> getLayoutNamesFromBinding(String bindingName) {
+        String camel = bindingName.endsWith("Binding") ? bindingName.substring(0, bindingName.length() - "Binding".length()) : bindingName;
+        Set<String> layoutNames = new LinkedHashSet<>();
+        layoutNames.add(CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, camel));
+        layoutNames.add(formatCamelToUnderline(camel));
+        return layoutNames;
+    }
+
+    /**
+     * Qualify a binding class the way the databinding compiler does: DemoBinding -> app.package.databinding.DemoBinding,
+     * .DemoBinding (from {@code <data class=".DemoBinding">}) -> app.package.DemoBinding, qualified names are kept.
+     * Without the app package the simple name is returned.
+     */
+    public static String getQualifiedBindingName(String bindingName, String appPackage) {
+        if (bindingName.startsWith(".")) {
+            return appPackage == null ? bindingName.substring(1) : appPackage + bindingName;
         }
-        return path;
+        if (bindingName.indexOf('.') != -1 || appPackage == null) {
+            return bindingName;
+        }
+        return appPackage + ".databinding." + bindingName;
+    }
+
+    public static String formatCamelToUnderline(String camel) {
+        return contactLastNumWithUnderline(CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, camel));
     }
 
     // layout_demo01 ->layout_demo_01
@@ -0,0 +1,60 @@
+package me.texy.databindinghunter;
+
+import com.intellij.psi.PsiFile;
+import me.texy.databindinghunter.bench.SyntheticProjectGenerator;
+import me.texy.databindinghunter.report.MigrationReport;
+
+import java.io.File;
+import java.util.Collections;
+
+/**
+ * Java goldens migrated by the engine with the psi hunters, against layout_screen_0 of {@link SyntheticProjectGenerator}:
+ * view0Of0 is a TextView, view1Of0 an ImageView, view2Of0 a Button and view3Of0 a View.
+ */
+public class JavaMigrationTest extends MigrationTestCase {
+
+    private static final String GOLDEN_DIR = "com/example/bench/golden/";
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        getSettings().textEditJavaRewrite = isTextEditBackend();
+        new SyntheticProjectGenerator(1, 0, 0).generate(myFixture::addFileToProject);
+    }
+
+    protected boolean isTextEditBackend() {
+        return false;
+    }
+
+    public void testFieldUtilInflate() throws Exception {
+        doTest("GoldenFieldUtilInflate");
+    }
+
+    public void testFieldInflate() throws Exception {
+        doTest("GoldenFieldInflate");
+    }
+
+    public void testLocalInflate() throws Exception {
+        doTest("GoldenLocalInflate");
+    }
+
+    public void testLocalBind() throws Exception {
+        doTest("GoldenLocalBind");
+    }
+
+    /**
+     * The text edit backend inserts view fields next to the binding field, the psi one at the end of the class,
+     * so a case may have a golden of its own per backend.
+     */
+    private void doTest(String name) throws Exception {
+        PsiFile javaFile = myFixture.addFileToProject(GOLDEN_DIR + name + ".java", loadTestData("java/" + name + ".java"));
+        MigrationReport report = migrate();
+        assertEquals(0, report.getErrorCount());
+        // both backends report the same classes
+        assertEquals(Collections.singletonList(name), report.getMigratedClasses());
+
+        String backendGolden = "java/" + name + "_after" + (isTextEditBackend() ? "_textEdits" : "") + ".java";
+        String golden = new File(getTestDataPath(), backendGolden).isFile() ? backendGolden : "java/" + name + "_after.java";
+        assertSameJava(loadTestData(golden), getText(javaFile.getVirtualFile()));
+    }
+}
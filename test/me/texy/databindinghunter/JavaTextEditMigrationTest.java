@@ -0,0 +1,12 @@
+package me.texy.databindinghunter;
+
+/**
+ * The java goldens again, through the text edit backend.
+ */
+public class JavaTextEditMigrationTest extends JavaMigrationTest {
+
+    @Override
+    protected boolean isTextEditBackend() {
+        return true;
+    }
+}
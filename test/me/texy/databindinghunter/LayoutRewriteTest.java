@@ -0,0 +1,70 @@
+package me.texy.databindinghunter;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiFile;
+
+import java.io.File;
+
+/**
+ * Layout goldens through both rewrite backends, {@link LayoutXmlHunter} on the psi and {@link LayoutXmlStreamRewriter}
+ * on the text. A case without an _after file is not a data binding layout and must come out unchanged.
+ */
+public class LayoutRewriteTest extends MigrationTestCase {
+
+    public void testLayoutWithData() throws Exception {
+        doTest("layoutWithData");
+    }
+
+    public void testCustomBindingClass() throws Exception {
+        doTest("customBindingClass");
+    }
+
+    public void testRootNamespaces() throws Exception {
+        doTest("rootNamespaces");
+    }
+
+    public void testPlainLayout() throws Exception {
+        doTest("plainLayout");
+    }
+
+    public void testStreamKeepsFormatting() {
+        String content = "        <!-- kept -->\n" +
+                "        <TextView   android:id=\"@+id/title\"\n" +
+                "                    android:text='a &gt; b' />\n";
+        LayoutXmlStreamRewriter.Result result = LayoutXmlStreamRewriter.rewrite("<layout xmlns:android=\"http://schemas.android.com/apk/res/android\">\n" +
+                "    <data />\n" +
+                "    <FrameLayout android:layout_width=\"match_parent\"\n" +
+                "                 android:layout_height=\"match_parent\">\n" +
+                content +
+                "    </FrameLayout>\n" +
+                "</layout>\n");
+        assertNotNull(result);
+        assertEquals("<FrameLayout xmlns:android=\"http://schemas.android.com/apk/res/android\" android:layout_width=\"match_parent\"\n" +
+                "                 android:layout_height=\"match_parent\">\n" +
+                content +
+                "    </FrameLayout>\n", result.getText());
+    }
+
+    public void testStreamOverridesRootAttributeOnly() {
+        LayoutXmlStreamRewriter.Result result = LayoutXmlStreamRewriter.rewrite("<layout xmlns:tools=\"http://schemas.android.com/tools\" tools:text=\"a\">\n" +
+                "    <data />\n" +
+                "    <TextView tools:hint='tools:text=\"a\"' tools:text=\"b\" />\n" +
+                "</layout>\n");
+        assertNotNull(result);
+        assertEquals("<TextView xmlns:tools=\"http://schemas.android.com/tools\" tools:text=\"a\" tools:hint='tools:text=\"a\"' />\n",
+                result.getText());
+    }
+
+    private void doTest(String name) throws Exception {
+        String before = loadTestData("layout/" + name + ".xml");
+        String expected = new File(getTestDataPath(), "layout/" + name + "_after.xml").isFile()
+                ? loadTestData("layout/" + name + "_after.xml") : before;
+
+        PsiFile xmlFile = myFixture.configureByText(name + ".xml", before);
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> new LayoutXmlHunter(xmlFile).hunt());
+        assertSameXml(expected, xmlFile.getText());
+
+        LayoutXmlStreamRewriter.Result streamed = LayoutXmlStreamRewriter.rewrite(before);
+        assertSameXml(expected, streamed == null ? before : streamed.getText());
+    }
+}
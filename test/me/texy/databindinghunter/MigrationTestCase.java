@@ -0,0 +1,168 @@
+package me.texy.databindinghunter;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.util.TimeoutUtil;
+import com.intellij.util.ui.UIUtil;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import me.texy.databindinghunter.engine.MigrationEngine;
+import me.texy.databindinghunter.engine.MigrationJournal;
+import me.texy.databindinghunter.report.MigrationReport;
+import me.texy.databindinghunter.settings.MigrationSettings;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Future;
+
+/**
+ * Light fixture whose source root also holds res and the manifest, so it is discovered as one source set.
+ * Settings changed by a test are restored after it. Goldens are compared after normalization: attribute order and
+ * whitespace in layouts, import order and formatting in java, so a formatter change does not count as a regression.
+ */
+public abstract class MigrationTestCase extends LightJavaCodeInsightFixtureTestCase {
+
+    private MigrationSettings.State mSavedSettings;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mSavedSettings = XmlSerializerUtil.createCopy(MigrationSettings.getInstance().getState());
+        // the light project outlives the test, a run that failed in an earlier one must not be resumed
+        MigrationJournal.open(getProject()).clear();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            MigrationSettings.getInstance().loadState(mSavedSettings);
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    @Override
+    protected String getTestDataPath() {
+        return "testData";
+    }
+
+    protected String loadTestData(String path) throws IOException {
+        return FileUtil.loadFile(new File(getTestDataPath(), path), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Text of the file's document, unsaved changes included.
+     */
+    protected static String getText(VirtualFile file) {
+        return FileDocumentManager.getInstance().getDocument(file).getText();
+    }
+
+    protected MigrationSettings.State getSettings() {
+        return MigrationSettings.getInstance().getState();
+    }
+
+    /**
+     * Migrates the whole fixture project. The engine runs on a pooled thread while this one dispatches the write
+     * commands it posts to the dispatch thread.
+     */
+    protected MigrationReport migrate() throws Exception {
+        MigrationReport report = new MigrationReport(getProject().getName());
+        Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(() ->
+                new MigrationEngine(getProject(), report).run(new EmptyProgressIndicator()));
+        while (!future.isDone()) {
+            UIUtil.dispatchAllInvocationEvents();
+            TimeoutUtil.sleep(1);
+        }
+        future.get();
+        return report;
+    }
+
+    protected static void assertSameXml(String expected, String actual) {
+        if (!normalizeXml(expected).equals(normalizeXml(actual))) {
+            assertEquals(expected, actual);
+        }
+    }
+
+    protected static void assertSameJava(String expected, String actual) {
+        if (!normalizeJava(expected).equals(normalizeJava(actual))) {
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Elements with their attributes sorted by name and their non-blank text, comments dropped.
+     */
+    private static String normalizeXml(String xml) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setIgnoringComments(true);
+            Element root = factory.newDocumentBuilder()
+                    .parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))).getDocumentElement();
+            StringBuilder normalized = new StringBuilder();
+            appendElement(root, normalized);
+            return normalized.toString();
+        } catch (Exception e) {
+            // not well-formed, never equal to a golden
+            return "unparseable: " + e.getMessage();
+        }
+    }
+
+    private static void appendElement(Element element, StringBuilder out) {
+        TreeMap<String, String> attributes = new TreeMap<>();
+        NamedNodeMap attributeNodes = element.getAttributes();
+        for (int i = 0; i < attributeNodes.getLength(); i++) {
+            Attr attribute = (Attr) attributeNodes.item(i);
+            attributes.put(attribute.getName(), attribute.getValue());
+        }
+        out.append("<").append(element.getTagName()).append(attributes).append(">");
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child instanceof Element) {
+                appendElement((Element) child, out);
+            } else if (child.getNodeType() == Node.TEXT_NODE && !child.getTextContent().trim().isEmpty()) {
+                out.append(child.getTextContent().trim());
+            }
+        }
+        out.append("</").append(element.getTagName()).append(">");
+    }
+
+    /**
+     * Imports sorted, blank lines dropped and whitespace kept only between words.
+     */
+    private static String normalizeJava(String java) {
+        List<String> imports = new ArrayList<>();
+        StringBuilder code = new StringBuilder();
+        for (String line : java.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) continue;
+
+            if (trimmed.startsWith("import ")) {
+                imports.add(trimmed);
+            } else {
+                code.append(trimmed).append(" ");
+            }
+        }
+        Collections.sort(imports);
+        return (String.join(" ", imports) + " " + code)
+                .replaceAll("\\s+", " ")
+                .replaceAll(" ?([^\\w\\s]) ?", "$1")
+                .trim();
+    }
+}
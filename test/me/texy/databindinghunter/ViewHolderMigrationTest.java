@@ -0,0 +1,57 @@
+package me.texy.databindinghunter;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import me.texy.databindinghunter.bench.SyntheticProjectGenerator;
+import me.texy.databindinghunter.report.MigrationReport;
+
+/**
+ * The viewHolderOutput backend: a holder is generated next to the binding, regenerated once it no longer matches
+ * its layout, and a hand-written class of the same name is left alone.
+ */
+public class ViewHolderMigrationTest extends MigrationTestCase {
+
+    private static final String JAVA_PATH = "com/example/bench/golden/GoldenLocalInflate.java";
+    private static final String HOLDER_PATH = "com/example/bench/databinding/LayoutScreen0Views.java";
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        getSettings().viewHolderOutput = true;
+        new SyntheticProjectGenerator(1, 0, 0).generate(myFixture::addFileToProject);
+    }
+
+    public void testGeneratesHolder() throws Exception {
+        PsiFile javaFile = migrateLocalInflate();
+        assertSameJava(loadTestData("java/GoldenLocalInflate_after_viewHolders.java"), getText(javaFile.getVirtualFile()));
+        assertSameJava(loadTestData("java/LayoutScreen0Views.java"), loadHolder());
+    }
+
+    public void testRegeneratesStaleHolder() throws Exception {
+        myFixture.addFileToProject(HOLDER_PATH, loadTestData("java/LayoutScreen0Views_stale.java"));
+        PsiFile javaFile = migrateLocalInflate();
+        assertSameJava(loadTestData("java/GoldenLocalInflate_after_viewHolders.java"), getText(javaFile.getVirtualFile()));
+        assertSameJava(loadTestData("java/LayoutScreen0Views.java"), loadHolder());
+    }
+
+    public void testKeepsHandWrittenClass() throws Exception {
+        String handWritten = loadTestData("java/LayoutScreen0Views_handWritten.java");
+        myFixture.addFileToProject(HOLDER_PATH, handWritten);
+        PsiFile javaFile = migrateLocalInflate();
+        assertSameJava(loadTestData("java/GoldenLocalInflate_after.java"), getText(javaFile.getVirtualFile()));
+        assertEquals(handWritten, loadHolder());
+    }
+
+    private PsiFile migrateLocalInflate() throws Exception {
+        PsiFile javaFile = myFixture.addFileToProject(JAVA_PATH, loadTestData("java/GoldenLocalInflate.java"));
+        MigrationReport report = migrate();
+        assertEquals(0, report.getErrorCount());
+        return javaFile;
+    }
+
+    private String loadHolder() throws Exception {
+        VirtualFile holder = myFixture.findFileInTempDir(HOLDER_PATH);
+        assertNotNull(HOLDER_PATH + " not generated", holder);
+        return getText(holder);
+    }
+}
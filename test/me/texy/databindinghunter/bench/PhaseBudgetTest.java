@@ -0,0 +1,47 @@
+package me.texy.databindinghunter.bench;
+
+import me.texy.databindinghunter.MigrationTestCase;
+import me.texy.databindinghunter.report.MigrationReport;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Migrates a synthetic project and checks the time of every phase against its budget, millis per file on top
+ * of a fixed allowance. {@code -Ddatabindinghunter.budget.javaRewrite=50} overrides the millis per file of one phase.
+ */
+public class PhaseBudgetTest extends MigrationTestCase {
+
+    private static final String BUDGET_PROPERTY_PREFIX = "databindinghunter.budget.";
+    // indexing catch-up and the first class loads land in whichever phase comes first
+    private static final long BUDGET_BASE_MILLIS = 500;
+    private static final Map<String, Long> BUDGET_MILLIS_PER_FILE = new LinkedHashMap<>();
+
+    static {
+        BUDGET_MILLIS_PER_FILE.put(MigrationReport.PHASE_LAYOUT_SCAN, 10L);
+        BUDGET_MILLIS_PER_FILE.put(MigrationReport.PHASE_JAVA_ANALYSIS, 40L);
+        BUDGET_MILLIS_PER_FILE.put(MigrationReport.PHASE_LAYOUT_REWRITE, 20L);
+        BUDGET_MILLIS_PER_FILE.put(MigrationReport.PHASE_JAVA_REWRITE, 100L);
+    }
+
+    public void testPhasesWithinBudget() throws Exception {
+        new SyntheticProjectGenerator(200, 400, 0.3).generate(myFixture::addFileToProject);
+        MigrationReport report = migrate();
+        assertEquals(0, report.getErrorCount());
+
+        StringBuilder failures = new StringBuilder();
+        for (Map.Entry<String, Long> entry : BUDGET_MILLIS_PER_FILE.entrySet()) {
+            String phase = entry.getKey();
+            long millis = report.getPhaseMillis(phase);
+            assertTrue(phase + " was not recorded", millis >= 0);
+
+            long perFile = Long.getLong(BUDGET_PROPERTY_PREFIX + phase, entry.getValue());
+            long budget = BUDGET_BASE_MILLIS + perFile * report.getPhaseFiles(phase);
+            if (millis > budget) {
+                failures.append(phase).append(" took ").append(millis).append("ms for ").append(report.getPhaseFiles(phase))
+                        .append(" files, over its budget of ").append(budget).append("ms\n");
+            }
+        }
+        assertTrue(failures.toString(), failures.length() == 0);
+    }
+}
@@ -0,0 +1,33 @@
+package me.texy.databindinghunter.bench;
+
+import com.intellij.openapi.util.io.FileUtil;
+import me.texy.databindinghunter.MigrationTestCase;
+import me.texy.databindinghunter.report.MigrationReport;
+
+import java.io.File;
+
+/**
+ * Generates a synthetic source set and migrates it, the report carries wall time, allocations and peak heap per phase.
+ * Sizes come from {@code -Ddatabindinghunter.bench.layouts=200}, {@code .classes=400} and {@code .bindingFraction=0.3},
+ * {@code -Ddatabindinghunter.bench.report=<path>} writes the json report to a file instead of stdout.
+ */
+public class SyntheticProjectBenchmarkTest extends MigrationTestCase {
+
+    private static final String PROPERTY_PREFIX = "databindinghunter.bench.";
+
+    public void testMigrateSyntheticProject() throws Exception {
+        int layouts = Integer.getInteger(PROPERTY_PREFIX + "layouts", 200);
+        int classes = Integer.getInteger(PROPERTY_PREFIX + "classes", 400);
+        double bindingFraction = Double.parseDouble(System.getProperty(PROPERTY_PREFIX + "bindingFraction", "0.3"));
+        new SyntheticProjectGenerator(layouts, classes, bindingFraction).generate(myFixture::addFileToProject);
+
+        MigrationReport report = migrate();
+        String reportPath = System.getProperty(PROPERTY_PREFIX + "report");
+        if (reportPath == null) {
+            System.out.println(report.toJson());
+        } else {
+            FileUtil.writeToFile(new File(reportPath), report.toJson());
+        }
+        assertEquals(0, report.getErrorCount());
+    }
+}
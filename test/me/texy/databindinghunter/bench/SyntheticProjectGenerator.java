@@ -0,0 +1,204 @@
+package me.texy.databindinghunter.bench;
+
+import com.intellij.util.PairConsumer;
+
+/**
+ * Writes the sources of one android-like source set: N data binding layouts, M classes of which a fraction uses data
+ * binding, and source stubs for the android classes the hunters need to resolve. Paths are relative to the source
+ * root, which also holds res and the manifest.
+ */
+public class SyntheticProjectGenerator {
+
+    public static final String PACKAGE = "com.example.bench";
+    private static final String LAYOUT_DIR = "res/layout/";
+    private static final int VIEWS_PER_LAYOUT = 4;
+    private static final String[] VIEW_TAGS = {"TextView", "ImageView", "Button", "View"};
+
+    private final int mLayoutCount;
+    private final int mClassCount;
+    private final double mBindingFraction;
+
+    public SyntheticProjectGenerator(int layoutCount, int classCount, double bindingFraction) {
+        this.mLayoutCount = Math.max(1, layoutCount);
+        this.mClassCount = classCount;
+        this.mBindingFraction = bindingFraction;
+    }
+
+    /**
+     * @param writer relative path -> text
+     */
+    public void generate(PairConsumer<String, String> writer) {
+        writer.consume("AndroidManifest.xml", "<manifest package=\"" + PACKAGE + "\"/>\n");
+
+        writeAndroidStubs(writer);
+        writeR(writer);
+        for (int i = 0; i < mLayoutCount; i++) {
+            writer.consume(LAYOUT_DIR + layoutName(i) + ".xml", layoutXml(i));
+            writeJava(writer, PACKAGE + ".databinding", bindingName(i), bindingClass(i));
+        }
+        int bindingClassCount = (int) Math.round(mClassCount * mBindingFraction);
+        for (int i = 0; i < mClassCount; i++) {
+            String className = "Screen" + i;
+            String source = i < bindingClassCount ? bindingUsage(className, i % 4, i % mLayoutCount) : plainClass(className);
+            writeJava(writer, PACKAGE + ".ui", className, source);
+        }
+    }
+
+    private static String layoutName(int layout) {
+        return "layout_screen_" + layout;
+    }
+
+    private static String bindingName(int layout) {
+        return "LayoutScreen" + layout + "Binding";
+    }
+
+    private static String idName(int layout, int view) {
+        return "view_" + view + "_of_" + layout;
+    }
+
+    // view_0_of_12 -> view0Of12
+    private static String viewRefName(int layout, int view) {
+        return "view" + view + "Of" + layout;
+    }
+
+    private String layoutXml(int layout) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n")
+                .append("<layout xmlns:android=\"http://schemas.android.com/apk/res/android\">\n")
+                .append("    <data>\n        <variable name=\"title\" type=\"String\" />\n    </data>\n")
+                .append("    <LinearLayout\n        android:layout_width=\"match_parent\"\n        android:layout_height=\"match_parent\">\n");
+        for (int view = 0; view < VIEWS_PER_LAYOUT; view++) {
+            xml.append("        <").append(VIEW_TAGS[view % VIEW_TAGS.length])
+                    .append("\n            android:id=\"@+id/").append(idName(layout, view)).append("\"")
+                    .append("\n            android:layout_width=\"wrap_content\"")
+                    .append("\n            android:layout_height=\"wrap_content\" />\n");
+        }
+        return xml.append("    </LinearLayout>\n</layout>\n").toString();
+    }
+
+    private String bindingClass(int layout) {
+        StringBuilder java = new StringBuilder()
+                .append("import android.databinding.ViewDataBinding;\n")
+                .append("import android.view.LayoutInflater;\n")
+                .append("import android.view.View;\n")
+                .append("import android.view.ViewGroup;\n")
+                .append("import android.widget.*;\n\n")
+                .append("public class ").append(bindingName(layout)).append(" extends ViewDataBinding {\n");
+        for (int view = 0; view < VIEWS_PER_LAYOUT; view++) {
+            java.append("    public final ").append(VIEW_TAGS[view % VIEW_TAGS.length]).append(" ")
+                    .append(viewRefName(layout, view)).append(" = null;\n");
+        }
+        return java.append("\n    public static ").append(bindingName(layout)).append(" inflate(LayoutInflater inflater) { return null; }\n")
+                .append("    public static ").append(bindingName(layout)).append(" inflate(LayoutInflater inflater, ViewGroup root, boolean attachToRoot) { return null; }\n")
+                .append("    public static ").append(bindingName(layout)).append(" bind(View view) { return null; }\n")
+                .append("}\n").toString();
+    }
+
+    /**
+     * 0: field + DataBindingUtil.inflate, 1: local + Binding.inflate(inflater),
+     * 2: local + DataBindingUtil.bind, 3: field + Binding.inflate(inflater, root, false)
+     */
+    private String bindingUsage(String className, int variant, int layout) {
+        String binding = bindingName(layout);
+        String view0 = viewRefName(layout, 0);
+        String view1 = viewRefName(layout, 1);
+        StringBuilder java = new StringBuilder()
+                .append("import android.databinding.DataBindingUtil;\n")
+                .append("import android.view.LayoutInflater;\n")
+                .append("import android.view.View;\n")
+                .append("import android.view.ViewGroup;\n")
+                .append("import ").append(PACKAGE).append(".R;\n")
+                .append("import ").append(PACKAGE).append(".databinding.").append(binding).append(";\n\n")
+                .append("public class ").append(className).append(" {\n");
+        switch (variant) {
+            case 0:
+                java.append("    private ").append(binding).append(" mBinding;\n\n")
+                        .append("    public View create(LayoutInflater inflater, ViewGroup parent) {\n")
+                        .append("        mBinding = DataBindingUtil.inflate(inflater, R.layout.").append(layoutName(layout)).append(", parent, false);\n")
+                        .append("        mBinding.").append(view0).append(".setVisibility(View.VISIBLE);\n")
+                        .append("        return mBinding.getRoot();\n")
+                        .append("    }\n\n")
+                        .append("    public void update() {\n")
+                        .append("        mBinding.").append(view1).append(".setVisibility(View.GONE);\n")
+                        .append("    }\n");
+                break;
+            case 1:
+                java.append("    public View create(LayoutInflater inflater) {\n")
+                        .append("        ").append(binding).append(" binding = ").append(binding).append(".inflate(inflater);\n")
+                        .append("        binding.").append(view0).append(".setVisibility(View.VISIBLE);\n")
+                        .append("        binding.").append(view1).append(".setVisibility(View.GONE);\n")
+                        .append("        return binding.getRoot();\n")
+                        .append("    }\n");
+                break;
+            case 2:
+                java.append("    public void bind(View view) {\n")
+                        .append("        ").append(binding).append(" binding = DataBindingUtil.bind(view);\n")
+                        .append("        binding.").append(view0).append(".setVisibility(View.VISIBLE);\n")
+                        .append("    }\n");
+                break;
+            default:
+                java.append("    private ").append(binding).append(" mBinding;\n\n")
+                        .append("    public View create(LayoutInflater inflater, ViewGroup parent) {\n")
+                        .append("        mBinding = ").append(binding).append(".inflate(inflater, parent, false);\n")
+                        .append("        mBinding.").append(view0).append(".setVisibility(View.VISIBLE);\n")
+                        .append("        return mBinding.getRoot();\n")
+                        .append("    }\n");
+                break;
+        }
+        return java.append("}\n").toString();
+    }
+
+    private static String plainClass(String className) {
+        return "import android.view.View;\n\n" +
+                "public class " + className + " {\n" +
+                "    public void show(View view) {\n" +
+                "        view.setVisibility(View.VISIBLE);\n" +
+                "    }\n" +
+                "}\n";
+    }
+
+    private void writeR(PairConsumer<String, String> writer) {
+        StringBuilder java = new StringBuilder("public final class R {\n    public static final class layout {\n");
+        for (int i = 0; i < mLayoutCount; i++) {
+            java.append("        public static final int ").append(layoutName(i)).append(" = ").append(0x7f0b0000 + i).append(";\n");
+        }
+        java.append("    }\n\n    public static final class id {\n");
+        for (int i = 0; i < mLayoutCount; i++) {
+            for (int view = 0; view < VIEWS_PER_LAYOUT; view++) {
+                java.append("        public static final int ").append(idName(i, view)).append(" = ")
+                        .append(0x7f080000 + i * VIEWS_PER_LAYOUT + view).append(";\n");
+            }
+        }
+        writeJava(writer, PACKAGE, "R", java.append("    }\n}\n").toString());
+    }
+
+    private static void writeAndroidStubs(PairConsumer<String, String> writer) {
+        writeJava(writer, "android.view", "View", "public class View {\n" +
+                "    public static final int VISIBLE = 0;\n" +
+                "    public static final int GONE = 8;\n" +
+                "    public void setVisibility(int visibility) {}\n" +
+                "    public <T extends View> T findViewById(int id) { return null; }\n" +
+                "}\n");
+        writeJava(writer, "android.view", "ViewGroup", "public class ViewGroup extends View {}\n");
+        writeJava(writer, "android.view", "LayoutInflater", "public class LayoutInflater {\n" +
+                "    public View inflate(int resource, ViewGroup root, boolean attachToRoot) { return null; }\n" +
+                "}\n");
+        for (String widget : new String[]{"TextView", "ImageView", "Button"}) {
+            writeJava(writer, "android.widget", widget, "import android.view.View;\n\npublic class " + widget + " extends View {}\n");
+        }
+        writeJava(writer, "android.databinding", "ViewDataBinding", "import android.view.View;\n\n" +
+                "public abstract class ViewDataBinding {\n" +
+                "    public View getRoot() { return null; }\n" +
+                "}\n");
+        writeJava(writer, "android.databinding", "DataBindingUtil", "import android.view.LayoutInflater;\n" +
+                "import android.view.View;\n" +
+                "import android.view.ViewGroup;\n\n" +
+                "public class DataBindingUtil {\n" +
+                "    public static <T extends ViewDataBinding> T inflate(LayoutInflater inflater, int layoutId, ViewGroup parent, boolean attachToParent) { return null; }\n" +
+                "    public static <T extends ViewDataBinding> T bind(View root) { return null; }\n" +
+                "}\n");
+    }
+
+    private static void writeJava(PairConsumer<String, String> writer, String packageName, String className, String body) {
+        writer.consume(packageName.replace('.', '/') + "/" + className + ".java", "package " + packageName + ";\n\n" + body);
+    }
+}
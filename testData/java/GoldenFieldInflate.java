@@ -0,0 +1,17 @@
+package com.example.bench.golden;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import com.example.bench.R;
+import com.example.bench.databinding.LayoutScreen0Binding;
+
+public class GoldenFieldInflate {
+    private LayoutScreen0Binding mBinding;
+
+    public View create(LayoutInflater inflater, ViewGroup parent) {
+        mBinding = LayoutScreen0Binding.inflate(inflater, parent, false);
+        mBinding.view1Of0.setVisibility(View.GONE);
+        return mBinding.getRoot();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bench.golden;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import com.example.bench.R;
+
+public class GoldenFieldInflate {
+    private View mBinding;
+    private ImageView mView1Of0View;
+
+    public View create(LayoutInflater inflater, ViewGroup parent) {
+        mBinding = inflater.inflate(R.layout.layout_screen_0, parent, false);
+        mView1Of0View = mBinding.findViewById(R.id.view_1_of_0);
+        mView1Of0View.setVisibility(View.GONE);
+        return mBinding;
+    }
+}
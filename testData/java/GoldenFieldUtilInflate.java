@@ -0,0 +1,18 @@
+package com.example.bench.golden;
+
+import android.databinding.DataBindingUtil;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import com.example.bench.R;
+import com.example.bench.databinding.LayoutScreen0Binding;
+
+public class GoldenFieldUtilInflate {
+    private LayoutScreen0Binding mBinding;
+
+    public View create(LayoutInflater inflater, ViewGroup parent) {
+        mBinding = DataBindingUtil.inflate(inflater, R.layout.layout_screen_0, parent, false);
+        mBinding.view0Of0.setVisibility(View.VISIBLE);
+        return mBinding.getRoot();
+    }
+}
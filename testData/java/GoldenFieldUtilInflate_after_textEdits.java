@@ -0,0 +1,19 @@
+package com.example.bench.golden;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import com.example.bench.R;
+
+public class GoldenFieldUtilInflate {
+    private View mBinding;
+    private TextView mView0Of0View;
+
+    public View create(LayoutInflater inflater, ViewGroup parent) {
+        mBinding = inflater.inflate(R.layout.layout_screen_0, parent, false);
+        mView0Of0View = mBinding.findViewById(R.id.view_0_of_0);
+        mView0Of0View.setVisibility(View.VISIBLE);
+        return mBinding;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.bench.golden;
+
+import android.databinding.DataBindingUtil;
+import android.view.View;
+import com.example.bench.R;
+import com.example.bench.databinding.LayoutScreen0Binding;
+
+public class GoldenLocalBind {
+    public void bind(View view) {
+        LayoutScreen0Binding binding = DataBindingUtil.bind(view);
+        binding.view3Of0.setVisibility(View.VISIBLE);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bench.golden;
+
+import android.view.View;
+import com.example.bench.R;
+
+public class GoldenLocalBind {
+    public void bind(View view) {
+        View binding = view;
+        View view3Of0View = binding.findViewById(R.id.view_3_of_0);
+        view3Of0View.setVisibility(View.VISIBLE);
+    }
+}
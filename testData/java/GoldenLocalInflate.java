@@ -0,0 +1,15 @@
+package com.example.bench.golden;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import com.example.bench.R;
+import com.example.bench.databinding.LayoutScreen0Binding;
+
+public class GoldenLocalInflate {
+    public View create(LayoutInflater inflater) {
+        LayoutScreen0Binding binding = LayoutScreen0Binding.inflate(inflater);
+        binding.view0Of0.setVisibility(View.VISIBLE);
+        binding.view2Of0.setVisibility(View.GONE);
+        return binding.getRoot();
+    }
+}
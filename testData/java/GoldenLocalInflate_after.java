@@ -0,0 +1,18 @@
+package com.example.bench.golden;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+import com.example.bench.R;
+
+public class GoldenLocalInflate {
+    public View create(LayoutInflater inflater) {
+        View binding = inflater.inflate(R.layout.layout_screen_0, null, false);
+        TextView view0Of0View = binding.findViewById(R.id.view_0_of_0);
+        Button view2Of0View = binding.findViewById(R.id.view_2_of_0);
+        view0Of0View.setVisibility(View.VISIBLE);
+        view2Of0View.setVisibility(View.GONE);
+        return binding;
+    }
+}
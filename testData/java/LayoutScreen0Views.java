@@ -0,0 +1,31 @@
+package com.example.bench.databinding;
+
+import android.view.View;
+import android.widget.Button;
+import android.widget.ImageView;
+import android.widget.TextView;
+import com.example.bench.R;
+
+/**
+ * Views of R.layout.layout_screen_0, looked up once when the layout is inflated.
+ */
+public final class LayoutScreen0Views {
+
+    public final TextView view0Of0;
+    public final ImageView view1Of0;
+    public final Button view2Of0;
+    public final View view3Of0;
+    private final View mRoot;
+
+    public LayoutScreen0Views(View root) {
+        this.mRoot = root;
+        this.view0Of0 = (TextView) root.findViewById(R.id.view_0_of_0);
+        this.view1Of0 = (ImageView) root.findViewById(R.id.view_1_of_0);
+        this.view2Of0 = (Button) root.findViewById(R.id.view_2_of_0);
+        this.view3Of0 = root.findViewById(R.id.view_3_of_0);
+    }
+
+    public View getRoot() {
+        return mRoot;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bench.databinding;
+
+import android.view.View;
+
+public final class LayoutScreen0Views {
+
+    public final View content;
+
+    public LayoutScreen0Views(View content) {
+        this.content = content;
+    }
+}
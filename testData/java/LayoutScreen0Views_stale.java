@@ -0,0 +1,23 @@
+package com.example.bench.databinding;
+
+import android.view.View;
+import android.widget.TextView;
+import com.example.bench.R;
+
+/**
+ * Views of R.layout.layout_screen_0, looked up once when the layout is inflated.
+ */
+public final class LayoutScreen0Views {
+
+    public final TextView view0Of0;
+    private final View mRoot;
+
+    public LayoutScreen0Views(View root) {
+        this.mRoot = root;
+        this.view0Of0 = (TextView) root.findViewById(R.id.view_0_of_0);
+    }
+
+    public View getRoot() {
+        return mRoot;
+    }
+}